@@ -0,0 +1,72 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialização JSON do BeerDTO com o mesmo ObjectMapper que o Spring MVC monta
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BeerJsonBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private BeerDTO beerDTO;
+    private byte[] beerJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        beerDTO = BenchmarkContexts.catalog(1).get(0);
+        beerDTO.setId(1L);
+        beerJson = objectMapper.writeValueAsBytes(beerDTO);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(beerDTO);
+    }
+
+    @Benchmark
+    public BeerDTO deserialize() throws IOException {
+        return objectMapper.readValue(beerJson, BeerDTO.class);
+    }
+
+    @Benchmark
+    public byte[] serializeCatalog(Catalog catalog) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(catalog.beers);
+    }
+
+    @State(Scope.Thread)
+    public static class Catalog {
+
+        @Param({"100", "10000"})
+        public int catalogSize;
+
+        private List<BeerDTO> beers;
+
+        @Setup
+        public void setUp() {
+            beers = BenchmarkContexts.catalog(catalogSize);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Resposta da listagem em cada formato aceito pelo BeerController (JSON, Smile, CBOR), com e sem gzip
+// Os ObjectMappers são montados como o Spring MVC monta os de cada conversor
+// O tamanho do payload de cada combinação é impresso no setup de cada trial
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BeerPayloadBenchmark {
+
+    private static final TypeReference<List<BeerDTO>> BEER_LIST = new TypeReference<List<BeerDTO>>() {
+    };
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    @Param({"100", "1000", "10000"})
+    public int catalogSize;
+
+    private ObjectMapper objectMapper;
+    private List<BeerDTO> beers;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = objectMapper(format);
+        beers = BenchmarkContexts.catalog(catalogSize);
+        long id = 1;
+        for (BeerDTO beerDTO : beers) {
+            beerDTO.setId(id++);
+        }
+        payload = encode();
+        System.out.printf("%n%s%s, %d beers: %d bytes%n", format, gzip ? "+gzip" : "", catalogSize, payload.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream output = gzip ? new GZIPOutputStream(bytes) : bytes) {
+            objectMapper.writeValue(output, beers);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public List<BeerDTO> decode() throws IOException {
+        try (InputStream input = gzip ? new GZIPInputStream(new ByteArrayInputStream(payload)) : new ByteArrayInputStream(payload)) {
+            return objectMapper.readValue(input, BEER_LIST);
+        }
+    }
+
+    private static ObjectMapper objectMapper(String format) {
+        switch (format) {
+            case "smile":
+                return Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor":
+                return Jackson2ObjectMapperBuilder.cbor().build();
+            default:
+                return Jackson2ObjectMapperBuilder.json().build();
+        }
+    }
+}
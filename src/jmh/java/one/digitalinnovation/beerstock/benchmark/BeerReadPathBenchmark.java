@@ -0,0 +1,86 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.service.BeerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Leitura com entidades gerenciadas + BeerMapper comparada com as projeções em BeerDTO
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BeerReadPathBenchmark {
+
+    @Param({"1000", "10000"})
+    public int catalogSize;
+
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private ConfigurableApplicationContext context;
+    private BeerRepository beerRepository;
+    private TransactionTemplate readOnlyTransaction;
+    private String name;
+
+    @Setup(Level.Trial)
+    public void setUp() throws BeerAlreadyRegisteredException {
+        context = BenchmarkContexts.start();
+        context.getBean(BeerService.class).createBeers(BenchmarkContexts.catalog(catalogSize));
+        beerRepository = context.getBean(BeerRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        name = "benchmark-" + (catalogSize / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BeerDTO> listAllEntities() {
+        return readOnlyTransaction.execute(status -> beerRepository.findAll()
+                .stream()
+                .map(beerMapper::toDTO)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<BeerDTO> listAllProjection() {
+        return readOnlyTransaction.execute(status -> beerRepository.findAllProjected());
+    }
+
+    @Benchmark
+    public Optional<BeerDTO> findByNameEntity() {
+        return readOnlyTransaction.execute(status -> beerRepository.findByName(name).map(beerMapper::toDTO));
+    }
+
+    @Benchmark
+    public Optional<BeerDTO> findByNameProjection() {
+        return readOnlyTransaction.execute(status -> beerRepository.findProjectedByName(name));
+    }
+}
@@ -0,0 +1,78 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.service.BeerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// BeerService.increment/decrement com a aplicação completa (H2 em memória)
+// Sem disputa: cada operação escolhe uma cerveja aleatoria do catalogo
+// Com disputa: todas as threads alteram a mesma cerveja
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BeerStockBenchmark {
+
+    @Param({"100", "10000"})
+    public int catalogSize;
+
+    @Param({"atomic", "ledger", "coalescing"})
+    public String stockMode;
+
+    private ConfigurableApplicationContext context;
+    private BeerService beerService;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws BeerAlreadyRegisteredException {
+        context = BenchmarkContexts.start("beerstock.stock.mode=" + stockMode);
+        beerService = context.getBean(BeerService.class);
+        List<BeerDTO> beers = beerService.createBeers(BenchmarkContexts.catalog(catalogSize));
+        ids = beers.stream().mapToLong(BeerDTO::getId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+//  Incrementa e decrementa 1, para o estoque ficar sempre no meio do intervalo
+    @Benchmark
+    @Threads(1)
+    public BeerDTO incrementDecrementUncontended() throws BeerNotFoundException, BeerStockExceededException {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        beerService.increment(id, 1);
+        return beerService.decrement(id, 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public BeerDTO incrementDecrementContended() throws BeerNotFoundException, BeerStockExceededException {
+        long id = ids[0];
+        beerService.increment(id, 1);
+        return beerService.decrement(id, 1);
+    }
+}
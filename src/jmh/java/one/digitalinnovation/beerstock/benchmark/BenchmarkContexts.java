@@ -0,0 +1,51 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.BeerstockApplication;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Utilitarios compartilhados pelos benchmarks
+final class BenchmarkContexts {
+
+    private BenchmarkContexts() {
+    }
+
+//  Sobe a aplicação sem servidor web, com um banco H2 proprio para cada trial do JMH
+//  e sem journal nem snapshot, para não gravar (nem restaurar) as alterações dos benchmarks
+    static ConfigurableApplicationContext start(String... properties) {
+        String[] allProperties = new String[properties.length + 5];
+        allProperties[0] = "spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID();
+        allProperties[1] = "logging.level.root=WARN";
+        allProperties[2] = "spring.main.banner-mode=off";
+        allProperties[3] = "beerstock.journal.enabled=false";
+        allProperties[4] = "beerstock.snapshot.enabled=false";
+        System.arraycopy(properties, 0, allProperties, 5, properties.length);
+        return new SpringApplicationBuilder(BeerstockApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(allProperties)
+                .run();
+    }
+
+//  Catalogo com quantidade no meio do intervalo, assim incrementos e decrementos pequenos nunca estouram
+    static List<BeerDTO> catalog(int size) {
+        BeerType[] types = BeerType.values();
+        List<BeerDTO> beers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            beers.add(BeerDTO.builder()
+                    .name("benchmark-" + i)
+                    .brand("Brand " + (i % 50))
+                    .max(100)
+                    .quantity(50)
+                    .type(types[i % types.length])
+                    .build());
+        }
+        return beers;
+    }
+}
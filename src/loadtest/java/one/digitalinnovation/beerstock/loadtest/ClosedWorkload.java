@@ -0,0 +1,43 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Modelo fechado: um numero fixo de usuarios, cada um so envia a proxima requisição depois da resposta (+ think time)
+// Mede a vazão maxima para a concorrencia informada
+public class ClosedWorkload implements Workload {
+
+    private final int users;
+    private final Duration thinkTime;
+    private final LoadClient client;
+
+    public ClosedWorkload(int users, Duration thinkTime, LoadClient client) {
+        this.users = users;
+        this.thinkTime = thinkTime;
+        this.client = client;
+    }
+
+    @Override
+    public void run(Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        for (int i = 0; i < users; i++) {
+            executor.execute(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        client.execute();
+                        if (!thinkTime.isZero()) {
+                            Thread.sleep(thinkTime.toMillis());
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(duration.toMillis() + 60_000, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,114 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latencias (em microssegundos) e resultados por operação, gravados de varias threads ao mesmo tempo
+public class LatencyReport {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, Counters> counters = new EnumMap<>(Operation.class);
+
+    public LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(SIGNIFICANT_DIGITS));
+            counters.put(operation, new Counters());
+        }
+    }
+
+//  status < 0 = falha de conexão ou timeout
+    public void record(Operation operation, int status, long latencyNanos) {
+        recorders.get(operation).recordValue(Math.max(1, latencyNanos / 1_000));
+        Counters operationCounters = counters.get(operation);
+        if (status >= 200 && status < 300) {
+            operationCounters.succeeded.increment();
+        } else if (status >= 400 && status < 500) {
+//          Ex.: estoque excedido (400) ou cerveja não encontrada (404), resposta valida da API
+            operationCounters.rejected.increment();
+        } else {
+            operationCounters.failed.increment();
+        }
+    }
+
+//  Descarta o que foi medido até agora (fim do aquecimento)
+    public void reset() {
+        recorders.values().forEach(Recorder::reset);
+        counters.values().forEach(Counters::reset);
+    }
+
+//  Tabela resumo por operação e total, e um arquivo .hgrm (em ms) por operação para plotar
+    public void write(Duration measured, Path outputDirectory, PrintStream out) throws IOException {
+        Files.createDirectories(outputDirectory);
+        double seconds = measured.toNanos() / 1e9;
+        Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+        Counters totalCounters = new Counters();
+
+        out.printf("%-12s %9s %9s %9s %7s %10s %9s %9s %9s %9s%n",
+                "operação", "total", "ok", "4xx", "erros", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            total.add(histogram);
+            Counters operationCounters = counters.get(operation);
+            totalCounters.add(operationCounters);
+            printLine(out, operation.getKey(), histogram, operationCounters, seconds);
+            writeDistribution(outputDirectory.resolve(operation.getKey() + ".hgrm"), histogram);
+        }
+        printLine(out, "total", total, totalCounters, seconds);
+        writeDistribution(outputDirectory.resolve("total.hgrm"), total);
+        out.println("Distribuições HdrHistogram em " + outputDirectory.toAbsolutePath());
+    }
+
+    private void printLine(PrintStream out, String label, Histogram histogram, Counters counters, double seconds) {
+        out.printf("%-12s %9d %9d %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                label,
+                histogram.getTotalCount(),
+                counters.succeeded.sum(),
+                counters.rejected.sum(),
+                counters.failed.sum(),
+                histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    private void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream stream = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(stream, MICROS_PER_MILLI);
+        }
+    }
+
+    private static class Counters {
+
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        private void reset() {
+            succeeded.reset();
+            rejected.reset();
+            failed.reset();
+        }
+
+        private void add(Counters other) {
+            succeeded.add(other.succeeded.sum());
+            rejected.add(other.rejected.sum());
+            failed.add(other.failed.sum());
+        }
+    }
+}
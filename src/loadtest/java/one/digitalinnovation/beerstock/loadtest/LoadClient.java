@@ -0,0 +1,54 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+// Envia uma requisição sorteada do mix e registra a latencia no relatorio
+public class LoadClient {
+
+    private final HttpClient httpClient;
+    private final RequestFactory requestFactory;
+    private final OperationMix mix;
+    private final LatencyReport report;
+
+    public LoadClient(HttpClient httpClient, RequestFactory requestFactory, OperationMix mix, LatencyReport report) {
+        this.httpClient = httpClient;
+        this.requestFactory = requestFactory;
+        this.mix = mix;
+        this.report = report;
+    }
+
+//  Modelo fechado: a latencia conta a partir do envio
+    public void execute() throws InterruptedException {
+        RequestFactory.PreparedRequest prepared = requestFactory.create(mix.pick());
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(prepared.getRequest(), HttpResponse.BodyHandlers.ofByteArray());
+            complete(prepared.getOperation(), response, start);
+        } catch (IOException e) {
+            report.record(prepared.getOperation(), -1, System.nanoTime() - start);
+        }
+    }
+
+//  Modelo aberto: a latencia conta a partir do horario em que a requisição deveria ter saido,
+//  assim o tempo esperando por conexão livre também entra na medida (sem coordinated omission)
+    public CompletableFuture<Void> executeAsync(long intendedStartNanos) {
+        RequestFactory.PreparedRequest prepared = requestFactory.create(mix.pick());
+        return httpClient.sendAsync(prepared.getRequest(), HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        report.record(prepared.getOperation(), -1, System.nanoTime() - intendedStartNanos);
+                    } else {
+                        complete(prepared.getOperation(), response, intendedStartNanos);
+                    }
+                    return null;
+                });
+    }
+
+    private void complete(Operation operation, HttpResponse<byte[]> response, long startNanos) {
+        report.record(operation, response.statusCode(), System.nanoTime() - startNanos);
+        requestFactory.onResponse(operation, response.statusCode(), response.body());
+    }
+}
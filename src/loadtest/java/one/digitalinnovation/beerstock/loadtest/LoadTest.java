@@ -0,0 +1,137 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import one.digitalinnovation.beerstock.BeerstockApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Teste de carga HTTP que reproduz as requisições da collection do Postman
+// mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--model=open --rate=300 --duration=60s"
+//
+// Opções: --model=closed|open, --concurrency (usuarios no fechado, conexões simultaneas no aberto),
+// --rate (req/s no aberto), --think-time, --warmup, --duration, --catalog (cervejas criadas antes da carga),
+// --mix=list=5,findByName=40,increment=25,decrement=25,create=5,delete=0, --collection, --output,
+// --target=http://host:porta (sem ele a aplicação é iniciada neste processo)
+// Chaves com ponto são repassadas para a aplicação, ex.: --beerstock.stock.mode=ledger
+public class LoadTest {
+
+    private static final int SEED_CHUNK_SIZE = 1000;
+//  Estoque do catalogo de carga: bem longe dos limites, para incremento/decremento quase nunca serem rejeitados
+    private static final int SEED_MAX = 500;
+    private static final int SEED_QUANTITY = 100;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<Operation, RequestTemplate> templates = PostmanCollection.load(options.getCollection(), objectMapper);
+        verifyTemplates(options, templates);
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.getTarget();
+        if (baseUrl == null) {
+            context = startApplication(options);
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(options.getConcurrency());
+        try {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            List<Long> catalogIds = new ArrayList<>();
+            List<String> catalogNames = new ArrayList<>();
+            seedCatalog(httpClient, objectMapper, baseUrl, templates.get(Operation.CREATE), options.getCatalogSize(), catalogIds, catalogNames);
+
+            LatencyReport report = new LatencyReport();
+            LoadClient client = new LoadClient(httpClient, new RequestFactory(baseUrl, templates, objectMapper, catalogIds, catalogNames),
+                    options.getMix(), report);
+            Workload workload = options.isOpenModel()
+                    ? new OpenWorkload(options.getRate(), options.getConcurrency(), client)
+                    : new ClosedWorkload(options.getConcurrency(), options.getThinkTime(), client);
+
+            System.out.printf("Carga %s em %s: concorrencia %d%s, mix %s, catalogo %d, aquecimento %s, medição %s%n",
+                    options.getModel(), baseUrl, options.getConcurrency(),
+                    options.isOpenModel() ? ", " + options.getRate() + " req/s" : "",
+                    options.getMix(), options.getCatalogSize(), options.getWarmup(), options.getDuration());
+
+            workload.run(options.getWarmup());
+            report.reset();
+            long start = System.nanoTime();
+            workload.run(options.getDuration());
+            Duration measured = Duration.ofNanos(System.nanoTime() - start);
+
+            report.write(measured, options.getOutput(), System.out);
+        } finally {
+            executor.shutdownNow();
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static void verifyTemplates(LoadTestOptions options, Map<Operation, RequestTemplate> templates) {
+        if (!templates.containsKey(Operation.CREATE)) {
+            throw new IllegalStateException("A collection precisa de uma requisição de criação (POST /api/v1/beers) para montar o catalogo");
+        }
+        for (Operation operation : Operation.values()) {
+            if (options.getMix().contains(operation) && !templates.containsKey(operation)) {
+                throw new IllegalStateException("Operação " + operation.getKey() + " está no mix mas não existe na collection");
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestOptions options) {
+//      O restart do devtools executaria o main do teste de carga de novo, sem os argumentos
+        System.setProperty("spring.devtools.restart.enabled", "false");
+//      Padrões que podem ser sobrescritos pelas opções com ponto (journal e snapshot desligados, a carga é descartavel)
+        return new SpringApplicationBuilder(BeerstockApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN", "beerstock.journal.enabled=false", "beerstock.snapshot.enabled=false")
+                .run(options.getApplicationArgs().toArray(new String[0]));
+    }
+
+//  Cria o catalogo pelo endpoint de criação em lote, usando o corpo de criação da collection com nomes unicos
+    private static void seedCatalog(HttpClient httpClient, ObjectMapper objectMapper, String baseUrl, RequestTemplate createTemplate,
+                                    int catalogSize, List<Long> catalogIds, List<String> catalogNames) throws IOException, InterruptedException {
+        URI bulkUri = URI.create(baseUrl + createTemplate.path() + "/bulk");
+        for (int from = 0; from < catalogSize; from += SEED_CHUNK_SIZE) {
+            ObjectNode request = objectMapper.createObjectNode();
+            ArrayNode beers = request.putArray("beers");
+            for (int i = from; i < Math.min(from + SEED_CHUNK_SIZE, catalogSize); i++) {
+                ObjectNode beer = createTemplate.getBody().deepCopy();
+                beer.put("name", "loadtest-" + i);
+                beer.put("max", SEED_MAX);
+                beer.put("quantity", SEED_QUANTITY);
+                beers.add(beer);
+            }
+            HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(bulkUri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)))
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Falha ao criar o catalogo (" + response.statusCode() + "): " + new String(response.body()));
+            }
+            for (JsonNode beer : objectMapper.readTree(response.body())) {
+                catalogIds.add(beer.path("id").asLong());
+                catalogNames.add(beer.path("name").asText());
+            }
+        }
+    }
+}
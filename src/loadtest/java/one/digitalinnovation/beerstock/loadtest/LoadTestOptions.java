@@ -0,0 +1,103 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Opções do teste de carga no formato --chave=valor
+// Chaves com ponto (--beerstock.stock.mode=ledger, --server.tomcat.threads.max=50...) vão para a aplicação iniciada
+@Getter
+public class LoadTestOptions {
+
+//  closed: N usuarios fazendo uma requisição por vez; open: taxa fixa de chegada, independente das respostas
+    private String model = "closed";
+    private int concurrency = 16;
+    private double rate = 200;
+    private Duration thinkTime = Duration.ZERO;
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(30);
+    private int catalogSize = 1000;
+    private OperationMix mix = OperationMix.parse("list=5,findByName=40,increment=25,decrement=25,create=5");
+    private Path collection = Path.of("postman", "DIO Beer API.postman_collection.json");
+    private Path output = Path.of("target", "loadtest");
+//  Sem target, a BeerstockApplication é iniciada no mesmo processo em uma porta livre
+    private String target;
+    private final List<String> applicationArgs = new ArrayList<>();
+
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento invalido (use --chave=valor): " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (key.contains(".")) {
+                options.applicationArgs.add(arg);
+                continue;
+            }
+            switch (key) {
+                case "model":
+                    if (!"closed".equals(value) && !"open".equals(value)) {
+                        throw new IllegalArgumentException("Modelo invalido (closed ou open): " + value);
+                    }
+                    options.model = value;
+                    break;
+                case "concurrency":
+                    options.concurrency = Integer.parseInt(value);
+                    break;
+                case "rate":
+                    options.rate = Double.parseDouble(value);
+                    break;
+                case "think-time":
+                    options.thinkTime = parseDuration(value);
+                    break;
+                case "warmup":
+                    options.warmup = parseDuration(value);
+                    break;
+                case "duration":
+                    options.duration = parseDuration(value);
+                    break;
+                case "catalog":
+                    options.catalogSize = Integer.parseInt(value);
+                    break;
+                case "mix":
+                    options.mix = OperationMix.parse(value);
+                    break;
+                case "collection":
+                    options.collection = Path.of(value);
+                    break;
+                case "output":
+                    options.output = Path.of(value);
+                    break;
+                case "target":
+                    options.target = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Opção desconhecida: --" + key);
+            }
+        }
+        return options;
+    }
+
+    public boolean isOpenModel() {
+        return "open".equals(model);
+    }
+
+//  500ms, 30s, 2m ou ISO-8601 (PT30S)
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.parse(value);
+    }
+}
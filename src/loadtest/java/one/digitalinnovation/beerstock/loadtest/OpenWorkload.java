@@ -0,0 +1,44 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+// Modelo aberto: requisições chegam em taxa fixa, independente de quanto a API demora para responder
+// Mostra como a latencia se comporta para uma vazão alvo (ex.: o pico esperado em produção)
+public class OpenWorkload implements Workload {
+
+    private final double requestsPerSecond;
+    private final int maxInFlight;
+    private final LoadClient client;
+
+    public OpenWorkload(double requestsPerSecond, int maxInFlight, LoadClient client) {
+        this.requestsPerSecond = requestsPerSecond;
+        this.maxInFlight = maxInFlight;
+        this.client = client;
+    }
+
+    @Override
+    public void run(Duration duration) throws InterruptedException {
+        long intervalNanos = (long) (1_000_000_000L / requestsPerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+//      Limita as conexões abertas; se a API não der conta, a espera aparece na latencia
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * intervalNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.acquire();
+            client.executeAsync(intendedStart).whenComplete((ignored, error) -> inFlight.release());
+        }
+//      Espera as requisições que ainda estão em andamento
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+    }
+}
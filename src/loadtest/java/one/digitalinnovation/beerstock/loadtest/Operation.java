@@ -0,0 +1,29 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+// Formatos de requisição da collection do Postman que o teste de carga sabe reproduzir
+@Getter
+@AllArgsConstructor
+public enum Operation {
+
+    LIST("list"),
+    CREATE("create"),
+    FIND_BY_NAME("findByName"),
+    DELETE("delete"),
+    INCREMENT("increment"),
+    DECREMENT("decrement");
+
+//  Nome usado em --mix
+    private final String key;
+
+    public static Operation fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Operação desconhecida: " + key));
+    }
+}
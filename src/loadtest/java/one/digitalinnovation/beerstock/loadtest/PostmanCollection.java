@@ -0,0 +1,67 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Le a collection do Postman (schema v2.1) e classifica cada requisição em uma Operation pelo metodo e formato do path
+public final class PostmanCollection {
+
+    private PostmanCollection() {
+    }
+
+    public static Map<Operation, RequestTemplate> load(Path collection, ObjectMapper objectMapper) throws IOException {
+        Map<Operation, RequestTemplate> templates = new EnumMap<>(Operation.class);
+        for (JsonNode item : objectMapper.readTree(collection.toFile()).path("item")) {
+            JsonNode request = item.path("request");
+            String method = request.path("method").asText();
+
+            List<String> pathSegments = new ArrayList<>();
+            request.path("url").path("path").forEach(segment -> pathSegments.add(segment.asText()));
+
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (JsonNode header : request.path("header")) {
+                if (!header.path("disabled").asBoolean(false)) {
+                    headers.put(header.path("key").asText(), header.path("value").asText());
+                }
+            }
+
+            String rawBody = request.path("body").path("raw").asText(null);
+            JsonNode body = rawBody != null && !rawBody.isBlank() ? objectMapper.readTree(rawBody) : null;
+
+            Operation operation = classify(method, pathSegments);
+            if (operation != null) {
+                templates.putIfAbsent(operation, new RequestTemplate(item.path("name").asText(), method, pathSegments, headers, body));
+            }
+        }
+        return templates;
+    }
+
+//  /api/v1/beers, /api/v1/beers/{name|id} e /api/v1/beers/{id}/increment|decrement
+    private static Operation classify(String method, List<String> pathSegments) {
+        int size = pathSegments.size();
+        String last = size > 0 ? pathSegments.get(size - 1) : "";
+        switch (method) {
+            case "GET":
+                return size == 3 ? Operation.LIST : size == 4 ? Operation.FIND_BY_NAME : null;
+            case "POST":
+                return size == 3 ? Operation.CREATE : null;
+            case "DELETE":
+                return size == 4 ? Operation.DELETE : null;
+            case "PATCH":
+                if (size == 5 && "increment".equals(last)) {
+                    return Operation.INCREMENT;
+                }
+                return size == 5 && "decrement".equals(last) ? Operation.DECREMENT : null;
+            default:
+                return null;
+        }
+    }
+}
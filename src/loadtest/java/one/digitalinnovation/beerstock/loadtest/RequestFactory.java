@@ -0,0 +1,120 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Monta as requisições a partir dos templates da collection, trocando nomes e ids pelos do catalogo de carga
+public class RequestFactory {
+
+//  Headers que o HttpClient controla sozinho
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("host", "connection", "content-length", "expect", "upgrade");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final Map<Operation, RequestTemplate> templates;
+    private final ObjectMapper objectMapper;
+
+    private final long[] catalogIds;
+    private final String[] catalogNames;
+//  Cervejas criadas durante a carga, são as unicas que a operação delete remove
+    private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+    private final AtomicLong createdSequence = new AtomicLong();
+
+    public RequestFactory(String baseUrl, Map<Operation, RequestTemplate> templates, ObjectMapper objectMapper,
+                          List<Long> catalogIds, List<String> catalogNames) {
+        this.baseUrl = baseUrl;
+        this.templates = templates;
+        this.objectMapper = objectMapper;
+        this.catalogIds = catalogIds.stream().mapToLong(Long::longValue).toArray();
+        this.catalogNames = catalogNames.toArray(new String[0]);
+    }
+
+    public PreparedRequest create(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case LIST:
+                return prepare(operation, templates.get(operation).path(), null);
+            case CREATE:
+                ObjectNode body = templates.get(operation).getBody().deepCopy();
+                body.put("name", "loadtest-created-" + createdSequence.incrementAndGet());
+                return prepare(operation, templates.get(operation).path(), body);
+            case FIND_BY_NAME:
+                String name = URLEncoder.encode(catalogNames[random.nextInt(catalogNames.length)], StandardCharsets.UTF_8)
+                        .replace("+", "%20");
+                return prepare(operation, templates.get(operation).pathWith(3, name), null);
+            case DELETE:
+                Long createdId = createdIds.poll();
+//              Sem cerveja criada pela carga para remover, cria uma no lugar
+                if (createdId == null) {
+                    return create(Operation.CREATE);
+                }
+                return prepare(operation, templates.get(operation).pathWith(3, createdId.toString()), null);
+            case INCREMENT:
+            case DECREMENT:
+                String id = Long.toString(catalogIds[random.nextInt(catalogIds.length)]);
+                return prepare(operation, templates.get(operation).pathWith(3, id), templates.get(operation).getBody());
+            default:
+                throw new IllegalArgumentException("Operação não suportada: " + operation);
+        }
+    }
+
+//  Guarda o id das cervejas criadas pela carga, para o delete
+    public void onResponse(Operation operation, int status, byte[] body) {
+        if (operation == Operation.CREATE && status == 201) {
+            try {
+                createdIds.offer(objectMapper.readTree(body).path("id").asLong());
+            } catch (Exception e) {
+                // resposta sem id, a cerveja so não fica disponivel para o delete
+            }
+        }
+    }
+
+    private PreparedRequest prepare(Operation operation, String path, JsonNode body) {
+        RequestTemplate template = templates.get(operation);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+        template.getHeaders().forEach((key, value) -> {
+            if (!RESTRICTED_HEADERS.contains(key.toLowerCase())) {
+                builder.header(key, value);
+            }
+        });
+        HttpRequest.BodyPublisher bodyPublisher = HttpRequest.BodyPublishers.noBody();
+        if (body != null) {
+            builder.setHeader("Content-Type", "application/json");
+            bodyPublisher = HttpRequest.BodyPublishers.ofByteArray(toBytes(body));
+        }
+        return new PreparedRequest(operation, builder.method(template.getMethod(), bodyPublisher).build());
+    }
+
+    private byte[] toBytes(JsonNode body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+//  A operação pode ser diferente da sorteada (delete sem cerveja criada vira create)
+    @Getter
+    @AllArgsConstructor
+    public static class PreparedRequest {
+
+        private final Operation operation;
+        private final HttpRequest request;
+    }
+}
@@ -0,0 +1,33 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+// Uma requisição da collection do Postman: metodo, segmentos do path, headers e corpo JSON (pode ser nulo)
+@Getter
+@AllArgsConstructor
+public class RequestTemplate {
+
+    private final String name;
+    private final String method;
+    private final List<String> pathSegments;
+    private final Map<String, String> headers;
+    private final JsonNode body;
+
+    public String path() {
+        return "/" + String.join("/", pathSegments);
+    }
+
+//  Path com o segmento informado trocado (ex.: o nome ou o id da cerveja)
+    public String pathWith(int segment, String value) {
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < pathSegments.size(); i++) {
+            path.append('/').append(i == segment ? value : pathSegments.get(i));
+        }
+        return path.toString();
+    }
+}
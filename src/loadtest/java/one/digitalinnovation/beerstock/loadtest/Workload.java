@@ -0,0 +1,9 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import java.time.Duration;
+
+// Modelo de geração de carga, executado uma vez no aquecimento e outra na medição
+public interface Workload {
+
+    void run(Duration duration) throws InterruptedException;
+}
@@ -0,0 +1,135 @@
+package one.digitalinnovation.beerstock.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Limite de requisições simultaneas ajustado pela latencia observada (gradiente)
+// A latencia recente é comparada com a de referencia (media longa): quando ela sobe, é sinal de fila se formando
+// no servidor ou no banco e o limite cai na mesma proporção; enquanto ela se mantem, o limite cresce devagar
+// Acima do limite, a requisição espera em uma fila limitada por tamanho e por tempo
+public class AdaptiveConcurrencyLimit {
+
+//  Peso de cada novo limite calculado sobre o atual
+    private static final double SMOOTHING = 0.2;
+//  Quanto a latencia recente pode passar da de referencia antes do limite cair
+    private static final double TOLERANCE = 1.5;
+//  Menor fração do limite mantida em um unico ajuste
+    private static final double MIN_GRADIENT = 0.5;
+//  Requisições consideradas na latencia recente e na de referencia
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 600;
+
+    public enum Admission {
+        ADMITTED,
+        QUEUE_FULL,
+        TIMED_OUT
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+//  Alterados sob o lock; volateis para as metricas lerem sem o lock
+    private volatile double limit;
+    private volatile int inFlight;
+    private volatile int queued;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, int maxQueue) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+//  Admite na hora se houver vaga, senão espera na fila até maxWait
+    public Admission acquire(long maxWait, TimeUnit unit) {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return Admission.ADMITTED;
+            }
+            if (queued >= maxQueue) {
+                return Admission.QUEUE_FULL;
+            }
+            queued++;
+            try {
+                long remainingNanos = unit.toNanos(maxWait);
+                while (inFlight >= (int) limit) {
+                    if (remainingNanos <= 0) {
+                        return Admission.TIMED_OUT;
+                    }
+                    remainingNanos = released.awaitNanos(remainingNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Admission.TIMED_OUT;
+            } finally {
+                queued--;
+            }
+            inFlight++;
+            return Admission.ADMITTED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+//  Libera a vaga; sem amostra (ex.: requisição assincrona longa) a latencia não entra no calculo do limite
+    public void release(long rttNanos, boolean sample) {
+        lock.lock();
+        try {
+            int previousLimit = (int) limit;
+            if (sample) {
+                update(rttNanos);
+            }
+            inFlight--;
+            if ((int) limit > previousLimit) {
+                released.signalAll();
+            } else {
+                released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    private void update(long rttNanos) {
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+        } else {
+            shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+            longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+        }
+//      Latencia recente bem menor que a referencia (ex.: fim de um pico): a referencia desce mais rapido
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos *= 0.95;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, TOLERANCE * longRttNanos / Math.max(1.0, shortRttNanos)));
+//      A raiz do limite é a folga para crescer (e para a fila que a latencia tolera)
+        double newLimit = limit * gradient + Math.sqrt(limit);
+//      Com pouca demanda o limite não cresce, senão ele chega a valores que nunca foram testados
+        if (inFlight < limit / 2) {
+            newLimit = Math.min(newLimit, limit);
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+    }
+}
@@ -0,0 +1,172 @@
+package one.digitalinnovation.beerstock.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Controle de admissão da API: cada grupo de endpoints tem um limite adaptativo de requisições simultaneas
+// Acima do limite a requisição espera pouco em uma fila limitada; se não houver vaga, responde 503 com Retry-After
+// na hora, em vez de ocupar uma thread do Tomcat e deixar todas as requisições lentas juntas
+// Leituras são recusadas enquanto houver ajustes de estoque esperando vaga na fila; com o estoque apenas no limite
+// (todas as vagas ocupadas, fila vazia) elas continuam passando, senão um fluxo constante de ajustes as deixaria sem resposta
+// O actuator (health checks) fica fora, so /api/ passa por aqui
+@Component
+// Depois do filtro de metricas do Spring (http.server.requests), para as recusas também aparecerem nele
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final String API_PATH = "/api/";
+
+    private final boolean enabled;
+    private final String retryAfterSeconds;
+    private final Map<AdmissionGroup, AdaptiveConcurrencyLimit> limits = new EnumMap<>(AdmissionGroup.class);
+    private final Map<AdmissionGroup, Long> maxWaitNanos = new EnumMap<>(AdmissionGroup.class);
+    private final Map<AdmissionGroup, Map<Rejection, Counter>> rejections = new EnumMap<>(AdmissionGroup.class);
+
+    @Autowired
+    public AdmissionFilter(MeterRegistry meterRegistry,
+                           @Value("${beerstock.admission.enabled:true}") boolean enabled,
+                           @Value("${beerstock.admission.initial-limit:20}") int initialLimit,
+                           @Value("${beerstock.admission.min-limit:4}") int minLimit,
+                           @Value("${beerstock.admission.max-limit:200}") int maxLimit,
+                           @Value("${beerstock.admission.stock.max-queue:100}") int stockMaxQueue,
+                           @Value("${beerstock.admission.stock.max-wait:500ms}") Duration stockMaxWait,
+                           @Value("${beerstock.admission.write.max-queue:50}") int writeMaxQueue,
+                           @Value("${beerstock.admission.write.max-wait:250ms}") Duration writeMaxWait,
+                           @Value("${beerstock.admission.read.max-queue:20}") int readMaxQueue,
+                           @Value("${beerstock.admission.read.max-wait:50ms}") Duration readMaxWait,
+                           @Value("${beerstock.admission.retry-after:1s}") Duration retryAfter) {
+        this.enabled = enabled;
+//      Retry-After é em segundos inteiros, no minimo 1
+        this.retryAfterSeconds = String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+        register(meterRegistry, AdmissionGroup.STOCK, new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, stockMaxQueue), stockMaxWait);
+        register(meterRegistry, AdmissionGroup.WRITE, new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, writeMaxQueue), writeMaxWait);
+        register(meterRegistry, AdmissionGroup.READ, new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, readMaxQueue), readMaxWait);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(API_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdmissionGroup group = AdmissionGroup.of(request);
+        AdaptiveConcurrencyLimit limit = limits.get(group);
+        Rejection rejection = admit(group, limit);
+        if (rejection != null) {
+            rejections.get(group).get(rejection).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server overloaded, retry later.");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+//              Exportação (StreamingResponseBody): a vaga fica ocupada até o fim, mas a duração não entra na latencia
+                request.getAsyncContext().addListener(new ReleaseOnComplete(limit));
+            } else {
+                limit.release(System.nanoTime() - start, true);
+            }
+        }
+    }
+
+    private Rejection admit(AdmissionGroup group, AdaptiveConcurrencyLimit limit) {
+        if (group == AdmissionGroup.READ && limits.get(AdmissionGroup.STOCK).getQueued() > 0) {
+            return Rejection.PRIORITY;
+        }
+        switch (limit.acquire(maxWaitNanos.get(group), TimeUnit.NANOSECONDS)) {
+            case QUEUE_FULL:
+                return Rejection.QUEUE_FULL;
+            case TIMED_OUT:
+                return Rejection.TIMEOUT;
+            default:
+                return null;
+        }
+    }
+
+    private void register(MeterRegistry meterRegistry, AdmissionGroup group, AdaptiveConcurrencyLimit limit, Duration maxWait) {
+        limits.put(group, limit);
+        maxWaitNanos.put(group, maxWait.toNanos());
+        Gauge.builder("beerstock.admission.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Limite atual de requisições simultaneas")
+                .tag("group", group.tag())
+                .register(meterRegistry);
+        Gauge.builder("beerstock.admission.in.flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Requisições em andamento")
+                .tag("group", group.tag())
+                .register(meterRegistry);
+        Gauge.builder("beerstock.admission.queued", limit, AdaptiveConcurrencyLimit::getQueued)
+                .description("Requisições esperando vaga")
+                .tag("group", group.tag())
+                .register(meterRegistry);
+        Map<Rejection, Counter> counters = new EnumMap<>(Rejection.class);
+        for (Rejection rejection : Rejection.values()) {
+            counters.put(rejection, Counter.builder("beerstock.admission.rejected")
+                    .description("Requisições recusadas com 503")
+                    .tag("group", group.tag())
+                    .tag("reason", rejection.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        rejections.put(group, counters);
+    }
+
+//  Motivo da recusa: fila cheia, espera maior que max-wait ou leitura cedendo a vez aos ajustes de estoque na fila
+    private enum Rejection {
+        QUEUE_FULL,
+        TIMEOUT,
+        PRIORITY
+    }
+
+    private static final class ReleaseOnComplete implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimit limit;
+
+        private ReleaseOnComplete(AdaptiveConcurrencyLimit limit) {
+            this.limit = limit;
+        }
+
+//      Chamado também depois de timeout e erro
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limit.release(0, false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
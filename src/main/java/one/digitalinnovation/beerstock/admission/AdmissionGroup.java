@@ -0,0 +1,30 @@
+package one.digitalinnovation.beerstock.admission;
+
+import javax.servlet.http.HttpServletRequest;
+
+// Grupos de endpoints da API, cada um com o proprio limite de requisições simultaneas
+// Em sobrecarga os ajustes de estoque tem prioridade: as leituras são recusadas primeiro
+public enum AdmissionGroup {
+
+//  Incremento, decremento, lote de estoque e reservas
+    STOCK,
+//  Criação e exclusão de cervejas
+    WRITE,
+//  Listagens, buscas e consultas
+    READ;
+
+    public static AdmissionGroup of(HttpServletRequest request) {
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            return READ;
+        }
+        if ("PATCH".equals(method) || request.getRequestURI().contains("/reservations")) {
+            return STOCK;
+        }
+        return WRITE;
+    }
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
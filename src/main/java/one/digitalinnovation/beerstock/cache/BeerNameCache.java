@@ -0,0 +1,62 @@
+package one.digitalinnovation.beerstock.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Cache nome -> cerveja usado pelas buscas por nome e verificação de duplicidade
+// Também guarda as ausencias (Optional vazio), para nomes inexistentes não irem ao banco toda vez
+// Limitado por tamanho e tempo de vida, com estatisticas publicadas no actuator (cache.gets, cache.evictions...)
+@Component
+public class BeerNameCache {
+
+    public static final String CACHE_NAME = "beerNames";
+
+    private final Cache<String, Optional<BeerDTO>> cache;
+
+    @Autowired
+    public BeerNameCache(@Value("${beerstock.cache.names.maximum-size:10000}") long maximumSize,
+                         @Value("${beerstock.cache.names.time-to-live:10m}") Duration timeToLive,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+//  Retorna a cerveja em cache ou carrega com o loader (uma unica carga por nome, mesmo concorrente)
+    public Optional<BeerDTO> get(String name, Function<String, Optional<BeerDTO>> loader) {
+        return cache.get(name, loader);
+    }
+
+//  Mantem o cache coerente depois que a alteração foi confirmada no banco
+//  Sem transação ativa (ex.: createBeer) é executado na hora
+//  Antes do CatalogVersions, para a ETag nova so valer quando o cache ja tiver a cerveja nova
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        String name = event.getBeer().getName();
+        if (event.isDeleted()) {
+            cache.put(name, Optional.empty());
+        } else {
+//          O estado do evento é o de depois do ajuste em todos os modos; no ledger o banco so o recebe no flush,
+//          então recarregar do banco aqui guardaria o estoque antigo até o time-to-live
+            cache.put(name, Optional.of(event.getCurrent()));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package one.digitalinnovation.beerstock.cache;
+
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.event.StockFlushedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Versões do catalogo e de cada cerveja, usadas como ETag nas leituras (GET condicional com If-None-Match)
+// A ETag é conferida antes de ler os dados, assim uma resposta 304 não vai ao banco nem serializa nada
+// Toda ETag leva a epoca da instancia: depois de reiniciar, as versões recomeçam mas as ETags antigas não valem mais
+// As ETags são fracas (W/): versionam os dados, não os bytes, e a mesma vale para gzip ou não e para JSON, CBOR ou Smile
+@Component
+public class CatalogVersions {
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong catalogVersion = new AtomicLong();
+//  Nome -> versão da ultima alteração, so das cervejas existentes (o mapa não cresce com as exclusões)
+    private final ConcurrentMap<String, Long> beerVersions = new ConcurrentHashMap<>();
+//  Versão da ultima exclusão, usada pelos nomes fora do mapa: a ETag de uma cerveja excluida muda sem guardar o nome dela
+//  Cada exclusão muda também a ETag das cervejas não alteradas desde a subida, que so custa uma resposta 200 a mais
+    private final AtomicLong deletedVersion = new AtomicLong();
+
+    public String getCatalogETag() {
+        return eTag(catalogVersion.get());
+    }
+
+    public String getBeerETag(String name) {
+        Long version = beerVersions.get(name);
+        return eTag(version != null ? version : deletedVersion.get());
+    }
+
+//  Depois do commit e por ultimo (inclusive depois do BeerNameCache): a versão nova so aparece
+//  quando os dados novos ja podem ser lidos, senão um dado antigo seria guardado com a ETag nova
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        String name = event.getBeer().getName();
+        if (!event.isDeleted()) {
+            bump(name);
+            return;
+        }
+//      A versão da exclusão passa a valer antes de o nome sair do mapa, assim ele nunca volta para uma versão antiga
+        deletedVersion.accumulateAndGet(catalogVersion.incrementAndGet(), Math::max);
+        beerVersions.remove(name);
+    }
+
+//  No modo ledger o banco so recebe os ajustes no flush; sem isso, uma leitura do banco feita antes
+//  do flush ficaria guardada pelo cliente com a ETag do ajuste
+    @EventListener
+    public void onStockFlushed(StockFlushedEvent event) {
+        event.getNames().forEach(this::bump);
+    }
+
+    private void bump(String name) {
+        long version = catalogVersion.incrementAndGet();
+        beerVersions.merge(name, version, Math::max);
+    }
+
+//  Nomes com versão propria
+    int trackedNames() {
+        return beerVersions.size();
+    }
+
+    private String eTag(long version) {
+        return "W/\"" + epoch + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,186 @@
+package one.digitalinnovation.beerstock.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.IdempotencyKeyReusedException;
+import one.digitalinnovation.beerstock.exception.IdempotencyRequestInProgressException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Resultados das operações de estoque por Idempotency-Key: a repetição de uma requisição (ex.: retry por timeout)
+// recebe o resultado guardado, sem executar o BeerService de novo
+// A chave guarda um future, assim uma repetição que chega enquanto a original ainda executa espera por ela (até wait-timeout)
+// Limitado pelo tamanho aproximado das entradas (com o resultado em JSON) e por tempo de vida
+@Component
+public class IdempotencyStore {
+
+    public static final String CACHE_NAME = "idempotencyKeys";
+
+//  Estimativa, em bytes, do que uma entrada ocupa alem da chave, da impressão digital e do resultado (future, objetos...)
+    private static final int ENTRY_OVERHEAD = 512;
+
+    private final Cache<String, Entry> entries;
+    private final ConcurrentMap<String, Entry> entriesMap;
+    private final long waitTimeoutNanos;
+//  JSON com as propriedades e as chaves de mapas em ordem alfabetica, para a impressão digital e o peso do resultado
+    private final ObjectMapper canonicalMapper;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter rejected;
+    private final Counter timedOut;
+
+    @Autowired
+    public IdempotencyStore(@Value("${beerstock.idempotency.maximum-size:16MB}") DataSize maximumSize,
+                            @Value("${beerstock.idempotency.time-to-live:1h}") Duration timeToLive,
+                            @Value("${beerstock.idempotency.wait-timeout:5s}") Duration waitTimeout,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((String key, Entry entry) -> 2 * (key.length() + entry.fingerprint.length()) + entry.resultSize + ENTRY_OVERHEAD)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        this.entriesMap = entries.asMap();
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        this.canonicalMapper = objectMapper.copy()
+                .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, CACHE_NAME);
+        this.executed = requests(meterRegistry, "executed");
+        this.replayed = requests(meterRegistry, "replayed");
+        this.rejected = requests(meterRegistry, "rejected");
+        this.timedOut = requests(meterRegistry, "timed-out");
+    }
+
+//  Impressão digital de uma requisição: a operação (com o que vier do caminho, ex.: id) e o hash do corpo em JSON canonico
+//  A ordem dos campos enviada pelo cliente não muda o resultado
+    public String fingerprint(String operation, Object body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonicalMapper.writeValueAsBytes(body));
+            return operation + ':' + Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request body of " + operation, e);
+        }
+    }
+
+//  fingerprint identifica a requisição (operação, cerveja, quantidade...): a mesma chave com outra requisição é recusada
+    @SuppressWarnings("unchecked")
+    public <T> Result<T> execute(String key, String fingerprint, IdempotentOperation<T> operation)
+            throws BeerNotFoundException, BeerStockExceededException, IdempotencyKeyReusedException, IdempotencyRequestInProgressException {
+        Entry entry = new Entry(fingerprint);
+        Entry existing = entriesMap.putIfAbsent(key, entry);
+        if (existing != null) {
+            if (!existing.fingerprint.equals(fingerprint)) {
+                rejected.increment();
+                throw new IdempotencyKeyReusedException(key);
+            }
+            T value = (T) await(key, existing.result);
+            replayed.increment();
+            return new Result<>(value, true);
+        }
+        T value;
+        try {
+            value = operation.execute();
+        } catch (BeerNotFoundException | BeerStockExceededException | RuntimeException e) {
+//          Nada foi aplicado: a chave é liberada para uma nova tentativa, e quem estava esperando recebe o mesmo erro
+            entriesMap.remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+        entry.result.complete(value);
+        executed.increment();
+//      Grava a entrada de novo para o weigher contar o resultado, que não existia no putIfAbsent
+        entry.resultSize = sizeOf(value);
+        entriesMap.replace(key, entry, entry);
+        return new Result<>(value, false);
+    }
+
+//  A original pode estar presa (ex.: esperando um lock do banco): a repetição desiste depois de wait-timeout, sem executar
+    private Object await(String key, CompletableFuture<Object> result)
+            throws BeerNotFoundException, BeerStockExceededException, IdempotencyRequestInProgressException {
+        try {
+            return result.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            throw new IdempotencyRequestInProgressException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyRequestInProgressException(key);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof BeerNotFoundException) {
+                throw (BeerNotFoundException) cause;
+            }
+            if (cause instanceof BeerStockExceededException) {
+                throw (BeerStockExceededException) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+
+//  Peso da entrada da chave no cache, 0 se ela não existir
+    int weightOf(String key) {
+        return entries.policy().eviction().map(eviction -> eviction.weightOf(key).orElse(0)).orElse(0);
+    }
+
+    private int sizeOf(Object value) {
+        try {
+            return canonicalMapper.writeValueAsBytes(value).length;
+        } catch (JsonProcessingException e) {
+            return 0;
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("beerstock.idempotency.requests")
+                .description("Requisições com Idempotency-Key por resultado")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result<T> {
+
+        private final T value;
+
+//      true quando o valor veio de uma execução anterior com a mesma chave
+        private final boolean replayed;
+    }
+
+    private static final class Entry {
+
+        private final String fingerprint;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+//      Tamanho do resultado em JSON, 0 enquanto a operação executa
+        private int resultSize;
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package one.digitalinnovation.beerstock.cache;
+
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+
+// Operação de estoque executada no maximo uma vez por Idempotency-Key
+@FunctionalInterface
+public interface IdempotentOperation<T> {
+
+    T execute() throws BeerNotFoundException, BeerStockExceededException;
+}
@@ -0,0 +1,26 @@
+package one.digitalinnovation.beerstock.config;
+
+import one.digitalinnovation.beerstock.trace.RequestTraceValidator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Troca o validator do Spring MVC por um que mede o tempo da validação, usando o mesmo Bean Validation da aplicação
+@Configuration
+public class RequestTraceWebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<javax.validation.Validator> validator;
+
+    @Autowired
+    public RequestTraceWebConfig(ObjectProvider<javax.validation.Validator> validator) {
+        this.validator = validator;
+    }
+
+    @Override
+    public Validator getValidator() {
+        return new RequestTraceValidator(new SpringValidatorAdapter(validator.getObject()));
+    }
+}
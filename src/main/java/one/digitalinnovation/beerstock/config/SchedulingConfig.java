@@ -0,0 +1,10 @@
+package one.digitalinnovation.beerstock.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Habilita as tarefas periodicas (@Scheduled) da aplicação
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,23 +1,54 @@
 package one.digitalinnovation.beerstock.controller;
 
 import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.cache.CatalogVersions;
+import one.digitalinnovation.beerstock.cache.IdempotencyStore;
+import one.digitalinnovation.beerstock.cache.IdempotentOperation;
+import one.digitalinnovation.beerstock.dto.BeerBulkDTO;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageRequestDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchRequestDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchResultDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.dto.ReservationDTO;
+import one.digitalinnovation.beerstock.dto.ReservationRequestDTO;
+import one.digitalinnovation.beerstock.dto.StockBatchDTO;
+import one.digitalinnovation.beerstock.dto.StockAggregatesDTO;
+import one.digitalinnovation.beerstock.dto.StockBatchResultDTO;
+import one.digitalinnovation.beerstock.dto.StockLevelRequestDTO;
 import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.IdempotencyKeyReusedException;
+import one.digitalinnovation.beerstock.exception.IdempotencyRequestInProgressException;
+import one.digitalinnovation.beerstock.exception.ReservationNotFoundException;
+import one.digitalinnovation.beerstock.service.BeerExportService;
 import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.ReservationService;
+import one.digitalinnovation.beerstock.service.StockBatchService;
+import one.digitalinnovation.beerstock.view.BeerSearchView;
+import one.digitalinnovation.beerstock.view.StockAggregatesView;
+import one.digitalinnovation.beerstock.view.StockLevelView;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -31,8 +62,27 @@ import java.util.List;
 //Onde acontece toda a operação inicial do padrao REST
 public class BeerController implements BeerControllerDocs {
 
+//  Newline delimited JSON, usado na exportação do catalogo
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+//  Quantidade padrão de cervejas nas consultas de estoque baixo e perto do maximo
+    private static final int DEFAULT_STOCK_LEVEL_LIMIT = 10;
+//  Quantidade padrão de resultados da busca
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+//  Chave enviada pelo cliente para que a repetição de um ajuste de estoque não seja aplicada duas vezes
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+//  Presente (true) quando a resposta é a guardada de uma requisição anterior com a mesma chave
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
 //  Injeção do Service
     private final BeerService beerService;
+    private final StockBatchService stockBatchService;
+    private final BeerExportService beerExportService;
+    private final ReservationService reservationService;
+    private final StockAggregatesView stockAggregatesView;
+    private final StockLevelView stockLevelView;
+    private final BeerSearchView beerSearchView;
+    private final CatalogVersions catalogVersions;
+    private final IdempotencyStore idempotencyStore;
 
 //  Criação de cerveja
     @PostMapping
@@ -41,16 +91,85 @@ public class BeerController implements BeerControllerDocs {
         return beerService.createBeer(beerDTO);
     }
 
+//  Criação de cervejas em lote
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<BeerDTO> createBeers(@RequestBody @Valid BeerBulkDTO beerBulkDTO) throws BeerAlreadyRegisteredException {
+        return beerService.createBeers(beerBulkDTO.getBeers());
+    }
+
 //  Busca por nome
+//  GET condicional: com If-None-Match igual a versão atual da cerveja, responde 304 sem buscar a cerveja
     @GetMapping("/{name}")
-    public BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException {
-        return beerService.findByName(name);
+    public ResponseEntity<BeerDTO> findByName(@PathVariable String name, WebRequest webRequest) throws BeerNotFoundException {
+//      A versão é lida antes dos dados: se mudar no meio, o cliente so leva a ETag antiga e busca de novo depois
+        String eTag = catalogVersions.getBeerETag(name);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(beerService.findByName(name));
     }
 
 //  Listagem
+//  GET condicional: com If-None-Match igual a versão atual do catalogo, responde 304 sem listar nem serializar
+//  A mesma ETag (fraca) vale para JSON, CBOR e Smile (Accept) e com ou sem gzip; o Vary separa as respostas nos caches
     @GetMapping
-    public List<BeerDTO> listBeers() {
-        return beerService.listAll();
+    public ResponseEntity<List<BeerDTO>> listBeers(WebRequest webRequest) {
+        String eTag = catalogVersions.getCatalogETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(beerService.listAll());
+    }
+
+//  Listagem paginada por cursor (?after=&size=&type=&brand=&minQuantity=&maxQuantity=)
+    @GetMapping("/page")
+    public BeerPageDTO listBeersPage(@ModelAttribute @Valid BeerPageRequestDTO pageRequestDTO) {
+        return beerService.listPage(pageRequestDTO);
+    }
+
+//  Busca por prefixo e aproximada em nome e marca (?q=&limit=), usada no typeahead
+    @GetMapping("/search")
+    public List<BeerSearchResultDTO> search(@ModelAttribute @Valid BeerSearchRequestDTO searchRequestDTO) {
+        int limit = searchRequestDTO.getLimit() != null ? searchRequestDTO.getLimit() : DEFAULT_SEARCH_LIMIT;
+        return beerSearchView.search(searchRequestDTO.getQ(), limit);
+    }
+
+//  Totais de estoque por tipo e por marca, lidos dos contadores em memória (sem consultar o banco)
+    @GetMapping("/aggregates")
+    public StockAggregatesDTO stockAggregates() {
+        return stockAggregatesView.getAggregates();
+    }
+
+//  Cervejas com menos estoque (?limit=&type=&threshold=), lidas do indice em memória
+    @GetMapping("/low-stock")
+    public List<BeerDTO> listLowStock(@ModelAttribute @Valid StockLevelRequestDTO stockLevelRequestDTO) {
+        return stockLevelView.findLowStock(stockLevelRequestDTO.getType(), stockLevelRequestDTO.getThreshold(),
+                limitOf(stockLevelRequestDTO));
+    }
+
+//  Cervejas mais perto do maximo (?limit=&type=&threshold=), lidas do indice em memória
+    @GetMapping("/near-capacity")
+    public List<BeerDTO> listNearCapacity(@ModelAttribute @Valid StockLevelRequestDTO stockLevelRequestDTO) {
+        return stockLevelView.findNearCapacity(stockLevelRequestDTO.getType(), stockLevelRequestDTO.getThreshold(),
+                limitOf(stockLevelRequestDTO));
+    }
+
+//  Exportação do catalogo inteiro, escrita direto na resposta conforme é lida do banco
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBeers() {
+        StreamingResponseBody responseBody = beerExportService::exportAll;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(responseBody);
     }
 
 //  Exclusão
@@ -60,14 +179,74 @@ public class BeerController implements BeerControllerDocs {
         beerService.deleteById(id);
     }
 
+//  Com Idempotency-Key, a repetição da requisição recebe o mesmo resultado sem incrementar de novo
     @PatchMapping("/{id}/increment")
-    public BeerDTO increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockExceededException {
-        return beerService.increment(id, quantityDTO.getQuantity());
+    public ResponseEntity<BeerDTO> increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO,
+                                             @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey)
+            throws BeerNotFoundException, BeerStockExceededException, IdempotencyKeyReusedException, IdempotencyRequestInProgressException {
+        int quantity = quantityDTO.getQuantity();
+        return idempotent(idempotencyKey, "increment:" + id, quantityDTO,
+                () -> beerService.increment(id, quantity));
     }
 
 //  Feito por Otavio Koike
     @PatchMapping("/{id}/decrement")
-    public BeerDTO decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockExceededException {
-        return beerService.decrement(id, quantityDTO.getQuantity());
+    public ResponseEntity<BeerDTO> decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO,
+                                             @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey)
+            throws BeerNotFoundException, BeerStockExceededException, IdempotencyKeyReusedException, IdempotencyRequestInProgressException {
+        int quantity = quantityDTO.getQuantity();
+        return idempotent(idempotencyKey, "decrement:" + id, quantityDTO,
+                () -> beerService.decrement(id, quantity));
+    }
+
+//  Varios ajustes de estoque em uma unica requisição
+//  Lote ALL_OR_NOTHING desfeito retorna 409 com o resultado de cada item
+//  O erro de cada item vai no resultado; as excessões de estoque declaradas são as do idempotent, repassadas sem alteração
+    @PatchMapping("/stock")
+    public ResponseEntity<StockBatchResultDTO> adjustStock(@RequestBody @Valid StockBatchDTO stockBatchDTO,
+                                                           @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey)
+            throws BeerNotFoundException, BeerStockExceededException, IdempotencyKeyReusedException, IdempotencyRequestInProgressException {
+        ResponseEntity<StockBatchResultDTO> response = idempotent(idempotencyKey, "stock", stockBatchDTO,
+                () -> stockBatchService.adjustStock(stockBatchDTO));
+        HttpStatus status = response.getBody().isCommitted() ? HttpStatus.OK : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).headers(response.getHeaders()).body(response.getBody());
+    }
+
+//  Reserva de estoque, liberada automaticamente se não for confirmada até expiresAt
+    @PostMapping("/{id}/reservations")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ReservationDTO reserve(@PathVariable Long id, @RequestBody @Valid ReservationRequestDTO reservationRequestDTO) throws BeerNotFoundException, BeerStockExceededException {
+        return reservationService.reserve(id, reservationRequestDTO.getQuantity());
+    }
+
+//  Confirmação da reserva: as unidades saem do estoque
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public BeerDTO confirmReservation(@PathVariable String reservationId) throws ReservationNotFoundException, BeerNotFoundException, BeerStockExceededException {
+        return reservationService.confirm(reservationId);
+    }
+
+//  Cancelamento da reserva
+    @DeleteMapping("/reservations/{reservationId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void releaseReservation(@PathVariable String reservationId) throws ReservationNotFoundException, BeerNotFoundException, BeerStockExceededException {
+        reservationService.release(reservationId);
+    }
+
+//  Sem chave executa direto; com chave, a primeira requisição executa e as repetições recebem o resultado guardado
+//  A requisição é identificada pela operação e pelo corpo (body), que so é serializado quando há chave
+    private <T> ResponseEntity<T> idempotent(String idempotencyKey, String operationName, Object body, IdempotentOperation<T> operation)
+            throws BeerNotFoundException, BeerStockExceededException, IdempotencyKeyReusedException, IdempotencyRequestInProgressException {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(operation.execute());
+        }
+        String fingerprint = idempotencyStore.fingerprint(operationName, body);
+        IdempotencyStore.Result<T> result = idempotencyStore.execute(idempotencyKey, fingerprint, operation);
+        return ResponseEntity.ok()
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.isReplayed()))
+                .body(result.getValue());
+    }
+
+    private static int limitOf(StockLevelRequestDTO stockLevelRequestDTO) {
+        return stockLevelRequestDTO.getLimit() != null ? stockLevelRequestDTO.getLimit() : DEFAULT_STOCK_LEVEL_LIMIT;
     }
 }
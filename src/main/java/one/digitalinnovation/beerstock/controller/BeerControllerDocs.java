@@ -4,13 +4,30 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.beerstock.dto.BeerBulkDTO;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageRequestDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchRequestDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchResultDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.dto.ReservationDTO;
+import one.digitalinnovation.beerstock.dto.ReservationRequestDTO;
+import one.digitalinnovation.beerstock.dto.StockBatchDTO;
+import one.digitalinnovation.beerstock.dto.StockAggregatesDTO;
+import one.digitalinnovation.beerstock.dto.StockBatchResultDTO;
+import one.digitalinnovation.beerstock.dto.StockLevelRequestDTO;
 import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.IdempotencyKeyReusedException;
+import one.digitalinnovation.beerstock.exception.IdempotencyRequestInProgressException;
+import one.digitalinnovation.beerstock.exception.ReservationNotFoundException;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -21,22 +38,71 @@ public interface BeerControllerDocs {
     @ApiOperation(value = "Beer creation operation")
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Success beer creation"),
-            @ApiResponse(code = 400, message = "Missing required fields or wrong field range value.")
+            @ApiResponse(code = 400, message = "Missing required fields, wrong field range value or name reserved for an API route (page, search, aggregates, low-stock, near-capacity, export).")
     })
     BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException;
 
+    @ApiOperation(value = "Bulk beer creation operation")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Success beers creation"),
+            @ApiResponse(code = 400, message = "Missing required fields, wrong field range value or beer name already registered.")
+    })
+    List<BeerDTO> createBeers(BeerBulkDTO beerBulkDTO) throws BeerAlreadyRegisteredException;
+
     @ApiOperation(value = "Returns beer found by a given name")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Success beer found in the system"),
+            @ApiResponse(code = 304, message = "Beer not changed since the version given in If-None-Match."),
             @ApiResponse(code = 404, message = "Beer with given name not found.")
     })
-    BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException;
+    ResponseEntity<BeerDTO> findByName(@PathVariable String name, WebRequest webRequest) throws BeerNotFoundException;
 
     @ApiOperation(value = "Returns a list of all beers registered in the system")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "List of all beers registered in the system"),
+            @ApiResponse(code = 304, message = "Catalog not changed since the version given in If-None-Match."),
+    })
+    ResponseEntity<List<BeerDTO>> listBeers(WebRequest webRequest);
+
+    @ApiOperation(value = "Returns a page of beers after the given cursor, optionally filtered by type, brand and quantity range")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Page of beers and the cursor of the next page"),
+            @ApiResponse(code = 400, message = "Wrong page size or filter value.")
+    })
+    BeerPageDTO listBeersPage(BeerPageRequestDTO pageRequestDTO);
+
+    @ApiOperation(value = "Returns the beers whose name or brand starts with, or closely resembles, the given text, most relevant first")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Ranked search results"),
+            @ApiResponse(code = 400, message = "Missing search text or wrong limit value.")
+    })
+    List<BeerSearchResultDTO> search(BeerSearchRequestDTO searchRequestDTO);
+
+    @ApiOperation(value = "Returns total units, SKU count and fill ratio of the whole catalog, per beer type and per brand")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock aggregates"),
+    })
+    StockAggregatesDTO stockAggregates();
+
+    @ApiOperation(value = "Returns the beers with the lowest stock, optionally filtered by type and by a maximum quantity")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Beers ordered by quantity, lowest first"),
+            @ApiResponse(code = 400, message = "Wrong limit or threshold value.")
+    })
+    List<BeerDTO> listLowStock(StockLevelRequestDTO stockLevelRequestDTO);
+
+    @ApiOperation(value = "Returns the beers closest to their max quantity, optionally filtered by type and by a maximum headroom")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Beers ordered by headroom (max - quantity), smallest first"),
+            @ApiResponse(code = 400, message = "Wrong limit or threshold value.")
     })
-    List<BeerDTO> listBeers();
+    List<BeerDTO> listNearCapacity(StockLevelRequestDTO stockLevelRequestDTO);
+
+    @ApiOperation(value = "Streams the whole catalog as newline delimited JSON, one beer per line")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Catalog export stream"),
+    })
+    ResponseEntity<StreamingResponseBody> exportBeers();
 
     @ApiOperation(value = "Delete a beer found by a given valid Id")
     @ApiResponses(value = {
@@ -44,4 +110,35 @@ public interface BeerControllerDocs {
             @ApiResponse(code = 404, message = "Beer with given id not found.")
     })
     void deleteById(@PathVariable Long id) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Applies a batch of stock adjustments in a single transaction")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Batch committed, per item results returned"),
+            @ApiResponse(code = 400, message = "Missing required fields or wrong field range value."),
+            @ApiResponse(code = 409, message = "All or nothing batch rolled back, per item results returned, or request with the same Idempotency-Key still in progress"),
+            @ApiResponse(code = 422, message = "Idempotency-Key already used by a different request.")
+    })
+    ResponseEntity<StockBatchResultDTO> adjustStock(StockBatchDTO stockBatchDTO, String idempotencyKey) throws BeerNotFoundException, BeerStockExceededException, IdempotencyKeyReusedException, IdempotencyRequestInProgressException;
+
+    @ApiOperation(value = "Holds stock units of a beer until the reservation is confirmed, released or expires")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Success reservation created"),
+            @ApiResponse(code = 400, message = "Wrong quantity value or not enough available stock."),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    ReservationDTO reserve(@PathVariable Long id, ReservationRequestDTO reservationRequestDTO) throws BeerNotFoundException, BeerStockExceededException;
+
+    @ApiOperation(value = "Confirms a reservation, removing the held units from stock")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success reservation confirmed"),
+            @ApiResponse(code = 404, message = "Reservation with given id not found or expired.")
+    })
+    BeerDTO confirmReservation(@PathVariable String reservationId) throws ReservationNotFoundException, BeerNotFoundException, BeerStockExceededException;
+
+    @ApiOperation(value = "Releases a reservation, making the held units available again")
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "Success reservation released"),
+            @ApiResponse(code = 404, message = "Reservation with given id not found or expired.")
+    })
+    void releaseReservation(@PathVariable String reservationId) throws ReservationNotFoundException, BeerNotFoundException, BeerStockExceededException;
 }
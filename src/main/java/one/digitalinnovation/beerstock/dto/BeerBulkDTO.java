@@ -0,0 +1,24 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+// Usada para validação dos Inputs da criação em lote
+public class BeerBulkDTO {
+
+    @Valid
+    @NotEmpty
+    @Size(max = 50000)
+    private List<BeerDTO> beers;
+}
@@ -10,6 +10,7 @@ import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
 
 @Data
@@ -19,10 +20,15 @@ import javax.validation.constraints.Size;
 // Usada para validação dos Inputs
 public class BeerDTO {
 
+//  Nomes iguais às rotas GET fixas do BeerController (/page, /search...): uma cerveja com esse nome
+//  não poderia ser buscada em GET /api/v1/beers/{name}, então eles não são aceitos na criação
+    public static final String RESERVED_NAMES_REGEXP = "^(?!(page|search|aggregates|low-stock|near-capacity|export)$).*$";
+
     private Long id;
 
     @NotNull
     @Size(min = 1, max = 200)
+    @Pattern(regexp = RESERVED_NAMES_REGEXP, message = "is reserved for an API route")
     private String name;
 
     @NotNull
@@ -0,0 +1,37 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+// Parametros da listagem paginada, vindos da query string
+public class BeerPageRequestDTO {
+
+//  Cursor: id da ultima cerveja da pagina anterior
+    private Long after;
+
+    @Min(1)
+    @Max(100)
+    private Integer size;
+
+    private BeerType type;
+
+    @Size(min = 1, max = 200)
+    private String brand;
+
+    @Min(0)
+    private Integer minQuantity;
+
+    @Min(0)
+    private Integer maxQuantity;
+}
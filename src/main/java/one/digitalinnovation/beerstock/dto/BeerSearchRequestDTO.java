@@ -0,0 +1,27 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+// Parametros da busca por nome e marca, vindos da query string
+public class BeerSearchRequestDTO {
+
+    @NotBlank
+    @Size(max = 200)
+    private String q;
+
+    @Min(1)
+    @Max(100)
+    private Integer limit;
+}
@@ -0,0 +1,23 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAggregateDTO {
+
+    private Integer skuCount;
+
+    private Long totalUnits;
+
+//  Soma dos max das cervejas do grupo
+    private Long totalCapacity;
+
+//  totalUnits / totalCapacity
+    private Double fillRatio;
+}
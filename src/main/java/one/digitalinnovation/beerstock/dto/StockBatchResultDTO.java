@@ -0,0 +1,23 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.StockBatchMode;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBatchResultDTO {
+
+    private StockBatchMode mode;
+
+//  false quando um lote ALL_OR_NOTHING foi desfeito
+    private boolean committed;
+
+    private List<StockOperationResultDTO> results;
+}
@@ -0,0 +1,28 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+// Parametros das consultas de estoque baixo e de estoque perto do maximo, vindos da query string
+public class StockLevelRequestDTO {
+
+    @Min(1)
+    @Max(100)
+    private Integer limit;
+
+    private BeerType type;
+
+//  Estoque baixo: quantity <= threshold; perto do maximo: max - quantity <= threshold
+    @Min(0)
+    private Integer threshold;
+}
@@ -0,0 +1,25 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.StockOperationStatus;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockOperationResultDTO {
+
+    private Long id;
+
+    private Integer delta;
+
+    private StockOperationStatus status;
+
+//  Estoque depois do ajuste, so preenchido quando aplicado
+    private Integer quantity;
+
+    private String message;
+}
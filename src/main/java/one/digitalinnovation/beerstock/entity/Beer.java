@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import one.digitalinnovation.beerstock.enums.BeerType;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -12,19 +14,35 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
 
 //Gera Getters, Setters, equals e hashCode automaticamente (Lombok)
 @Data
 //Descreve a entidade do JPA fazendo mapeamento (atributos das tabelas do banco de dados)
 @Entity
+//Indices da listagem paginada: filtro por tipo ou marca seguido do cursor por id
+@Table(indexes = {
+        @Index(name = "idx_beer_type_id", columnList = "type, id"),
+        @Index(name = "idx_beer_brand_id", columnList = "brand, id")
+})
+//Cache de segundo nivel: buscas por id não vão ao banco enquanto a cerveja estiver em cache
+//O UPDATE de estoque remove a cerveja do cache (BeerRepositoryImpl.adjustStock)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "beer")
 @NoArgsConstructor
 @AllArgsConstructor
 public class Beer {
 
+//  Tamanho do bloco de ids reservado a cada acesso à sequence
+    public static final int ID_ALLOCATION_SIZE = 50;
+
 //  Para cadastro no banco de dados
     @Id
-//   Tipo Identity
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+//   Sequence com blocos de ids (pooled), assim o Hibernate consegue agrupar os inserts em lotes JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beer_sequence")
+    @SequenceGenerator(name = "beer_sequence", sequenceName = "beer_sequence", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
 //  Para não poder ser nulo e unico no banco de dados
@@ -42,10 +60,19 @@ public class Beer {
 //  Uma cerveja só poderá ser incrementada se quantity <= max
     private int quantity;
 
+    @Column(nullable = false)
+//  Unidades seguradas por reservas, sempre reserved <= quantity: so quantity - reserved está disponivel
+    private int reserved;
+
 //
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private BeerType type;
 
+//  Controle de concorrencia otimista: o UPDATE feito pelo Hibernate so é aplicado se a versão
+//  continuar a mesma da leitura (o UPDATE de estoque em BeerRepositoryImpl também incrementa)
+    @Version
+    private Long version;
+
 
 }
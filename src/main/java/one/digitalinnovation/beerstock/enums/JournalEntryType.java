@@ -0,0 +1,15 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum JournalEntryType {
+
+    CREATED("Beer created"),
+    UPDATED("Beer stock adjusted"),
+    DELETED("Beer deleted");
+
+    private final String description;
+}
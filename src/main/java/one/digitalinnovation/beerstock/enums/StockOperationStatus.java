@@ -0,0 +1,18 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockOperationStatus {
+
+    APPLIED("Applied"),
+    REJECTED("Rejected, stock limits would be exceeded"),
+    NOT_FOUND("Beer not found"),
+    CONFLICT("Conflict, concurrent updates exhausted the retries"),
+    ROLLED_BACK("Rolled back"),
+    SKIPPED("Not executed");
+
+    private final String description;
+}
@@ -0,0 +1,41 @@
+package one.digitalinnovation.beerstock.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+
+// Publicado pelo BeerService a cada criação, exclusão ou alteração de estoque
+// Quem mantem dados derivados do catalogo (caches, indices...) escuta este evento
+@Getter
+@ToString
+@AllArgsConstructor
+public class BeerChangedEvent {
+
+//  Estado antes da alteração, nulo na criação
+    private final BeerDTO previous;
+
+//  Estado depois da alteração, nulo na exclusão
+    private final BeerDTO current;
+
+    public static BeerChangedEvent created(BeerDTO beerDTO) {
+        return new BeerChangedEvent(null, beerDTO);
+    }
+
+    public static BeerChangedEvent updated(BeerDTO previous, BeerDTO current) {
+        return new BeerChangedEvent(previous, current);
+    }
+
+    public static BeerChangedEvent deleted(BeerDTO beerDTO) {
+        return new BeerChangedEvent(beerDTO, null);
+    }
+
+    public boolean isDeleted() {
+        return current == null;
+    }
+
+//  Estado mais recente conhecido da cerveja (o anterior, no caso da exclusão)
+    public BeerDTO getBeer() {
+        return isDeleted() ? previous : current;
+    }
+}
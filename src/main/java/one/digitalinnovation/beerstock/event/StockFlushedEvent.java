@@ -0,0 +1,20 @@
+package one.digitalinnovation.beerstock.event;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collection;
+
+// Publicado pelo LedgerStockAdjuster depois de gravar no banco um lote de deltas que so estavam em memória
+// As leituras do banco so enxergam esses ajustes a partir daqui
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class StockFlushedEvent {
+
+//  Nomes das cervejas com deltas gravados no lote
+    private final Collection<String> names;
+}
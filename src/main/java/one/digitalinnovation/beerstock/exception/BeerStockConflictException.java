@@ -0,0 +1,20 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+// Falha transitoria de concorrencia (como a ConcurrencyFailureException do Spring), por isso não é checada:
+// a estrategia otimista lança depois de esgotar as tentativas, e a coalescing depois de esperar a vez na fila até max-wait
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BeerStockConflictException extends RuntimeException {
+
+    public BeerStockConflictException(Long id, int attempts) {
+        super(String.format("Beer with %s ID was concurrently updated, stock adjustment gave up after %s attempts", id, attempts));
+    }
+
+    public BeerStockConflictException(Long id, Duration waited) {
+        super(String.format("Beer with %s ID is busy, stock adjustment gave up after waiting %s ms", id, waited.toMillis()));
+    }
+}
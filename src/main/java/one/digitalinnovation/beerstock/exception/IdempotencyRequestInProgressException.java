@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyRequestInProgressException extends Exception {
+
+    public IdempotencyRequestInProgressException(String key) {
+        super(String.format("Request with idempotency key %s is still in progress, retry later.", key));
+    }
+}
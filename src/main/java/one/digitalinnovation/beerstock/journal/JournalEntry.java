@@ -0,0 +1,123 @@
+package one.digitalinnovation.beerstock.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.JournalEntryType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+// Registro do journal: a alteração e o estado da cerveja depois dela
+// Formato: [tamanho int][sequencia long][timestamp long][tipo byte][delta int][id long]
+//          [nome][marca][max int][quantidade int][tipo da cerveja][crc32 int], textos como [tamanho int][UTF-8]
+@Getter
+@ToString
+@AllArgsConstructor
+public class JournalEntry {
+
+//  Tamanho fixo do registro, sem os textos
+    private static final int FIXED_SIZE = Integer.BYTES + Long.BYTES + Long.BYTES + Byte.BYTES + Integer.BYTES + Long.BYTES
+            + 3 * Integer.BYTES + Integer.BYTES + Integer.BYTES + Integer.BYTES;
+
+//  Atribuida pelo escritor do journal, 0 enquanto o registro esta na fila
+    private final long sequence;
+    private final long timestamp;
+    private final JournalEntryType type;
+//  Variação da quantidade (na criação, a quantidade inicial; na exclusão, menos a quantidade final)
+    private final int delta;
+    private final BeerDTO beer;
+
+    public static JournalEntry of(BeerChangedEvent event, long timestamp) {
+        if (event.getPrevious() == null) {
+            return new JournalEntry(0, timestamp, JournalEntryType.CREATED, event.getCurrent().getQuantity(), event.getCurrent());
+        }
+        if (event.isDeleted()) {
+            return new JournalEntry(0, timestamp, JournalEntryType.DELETED, -event.getPrevious().getQuantity(), event.getPrevious());
+        }
+        int delta = event.getCurrent().getQuantity() - event.getPrevious().getQuantity();
+        return new JournalEntry(0, timestamp, JournalEntryType.UPDATED, delta, event.getCurrent());
+    }
+
+    JournalEntry withSequence(long sequence) {
+        return new JournalEntry(sequence, timestamp, type, delta, beer);
+    }
+
+//  Grava o registro na posição atual do buffer; retorna false, sem gravar nada, se não couber
+    boolean writeTo(ByteBuffer buffer) {
+        byte[] name = beer.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] brand = beer.getBrand().getBytes(StandardCharsets.UTF_8);
+        byte[] beerType = beer.getType().name().getBytes(StandardCharsets.UTF_8);
+        int size = FIXED_SIZE + name.length + brand.length + beerType.length;
+//      Sobra espaço para o tamanho 0 que marca o fim do segmento
+        if (buffer.remaining() < size + Integer.BYTES) {
+            return false;
+        }
+        int start = buffer.position();
+        buffer.putInt(size);
+        buffer.putLong(sequence);
+        buffer.putLong(timestamp);
+        buffer.put((byte) type.ordinal());
+        buffer.putInt(delta);
+        buffer.putLong(beer.getId());
+        putBytes(buffer, name);
+        putBytes(buffer, brand);
+        buffer.putInt(beer.getMax());
+        buffer.putInt(beer.getQuantity());
+        putBytes(buffer, beerType);
+        buffer.putInt(checksum(buffer, start + Integer.BYTES, size - 2 * Integer.BYTES));
+        return true;
+    }
+
+//  Le o registro da posição atual; retorna null no fim do segmento ou em um registro incompleto
+//  (escrita interrompida por uma queda), deixando a posição no inicio dele
+    static JournalEntry readFrom(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < FIXED_SIZE) {
+            return null;
+        }
+        int size = buffer.getInt(start);
+        if (size < FIXED_SIZE || size > buffer.remaining()) {
+            return null;
+        }
+        if (checksum(buffer, start + Integer.BYTES, size - 2 * Integer.BYTES) != buffer.getInt(start + size - Integer.BYTES)) {
+            return null;
+        }
+        buffer.position(start + Integer.BYTES);
+        long sequence = buffer.getLong();
+        long timestamp = buffer.getLong();
+        JournalEntryType type = JournalEntryType.values()[buffer.get()];
+        int delta = buffer.getInt();
+        long id = buffer.getLong();
+        String name = getString(buffer);
+        String brand = getString(buffer);
+        int max = buffer.getInt();
+        int quantity = buffer.getInt();
+        BeerType beerType = BeerType.valueOf(getString(buffer));
+        buffer.position(start + size);
+        return new JournalEntry(sequence, timestamp, type, delta, new BeerDTO(id, name, brand, max, quantity, beerType));
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(offset + length).position(offset);
+        crc.update(slice);
+        return (int) crc.getValue();
+    }
+}
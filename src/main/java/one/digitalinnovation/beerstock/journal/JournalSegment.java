@@ -0,0 +1,96 @@
+package one.digitalinnovation.beerstock.journal;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Arquivo do journal de tamanho fixo, mapeado em memória
+// O nome é a sequencia do primeiro registro, assim a ordem dos arquivos é a ordem do journal
+class JournalSegment {
+
+    private static final String SUFFIX = ".journal";
+
+    @Getter
+    private final Path path;
+    private final MappedByteBuffer buffer;
+//  Ultima sequencia gravada no segmento (0 se vazio)
+    @Getter
+    private long lastSequence;
+
+    private JournalSegment(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+//  Abre (ou cria) o segmento para escrita, posicionado depois do ultimo registro valido
+    static JournalSegment open(Path directory, long firstSequence, long size) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+//          O mapeamento continua valido depois de fechar o canal
+            JournalSegment segment = new JournalSegment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size())));
+            segment.forEach(entry -> segment.lastSequence = entry.getSequence());
+            return segment;
+        }
+    }
+
+//  Segmentos existentes no diretorio, em ordem
+    static List<Path> list(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+//  Sequencia do primeiro registro do segmento, pelo nome do arquivo
+    static long firstSequence(Path path) {
+        String fileName = path.getFileName().toString();
+        return Long.parseLong(fileName.substring(0, fileName.length() - SUFFIX.length()));
+    }
+
+//  Le todos os registros validos de um segmento, sem alterar o arquivo
+    static void read(Path path, Consumer<JournalEntry> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer readBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            JournalEntry entry;
+            while ((entry = JournalEntry.readFrom(readBuffer)) != null) {
+                consumer.accept(entry);
+            }
+        }
+    }
+
+//  Retorna false se o registro não cabe mais, hora de abrir o proximo segmento
+    boolean append(JournalEntry entry) {
+        if (!entry.writeTo(buffer)) {
+            return false;
+        }
+        lastSequence = entry.getSequence();
+        return true;
+    }
+
+//  Garante que as paginas alteradas foram gravadas no disco (fsync)
+    void force() {
+        buffer.force();
+    }
+
+    private void forEach(Consumer<JournalEntry> consumer) {
+        buffer.position(0);
+        JournalEntry entry;
+        while ((entry = JournalEntry.readFrom(buffer)) != null) {
+            consumer.accept(entry);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package one.digitalinnovation.beerstock.journal;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Estado do catalogo reconstruido a partir dos registros do journal (e do snapshot, quando existir)
+// Os eventos de commits concorrentes podem chegar ao journal fora de ordem, por isso o estoque
+// é reconstruido somando os deltas (que comutam) e uma cerveja excluida nunca volta (ids não são reutilizados)
+public class ReplayedCatalog {
+
+    private final Map<Long, BeerDTO> beers = new TreeMap<>();
+    private final Set<Long> deletedIds = new HashSet<>();
+    private long lastSequence;
+    private long highestId;
+
+    public ReplayedCatalog() {
+    }
+
+//  Estado salvo em um snapshot, a partir do qual os registros seguintes do journal são aplicados
+    public ReplayedCatalog(long lastSequence, Collection<BeerDTO> beers, Collection<Long> deletedIds) {
+        this.lastSequence = lastSequence;
+        beers.forEach(beer -> this.beers.put(beer.getId(), copy(beer)));
+        this.deletedIds.addAll(deletedIds);
+        this.beers.keySet().forEach(this::seeId);
+        this.deletedIds.forEach(this::seeId);
+    }
+
+    public void apply(JournalEntry entry) {
+        lastSequence = Math.max(lastSequence, entry.getSequence());
+        Long id = entry.getBeer().getId();
+        seeId(id);
+        if (deletedIds.contains(id)) {
+            return;
+        }
+        switch (entry.getType()) {
+            case CREATED:
+//              Uma alteração de estoque registrada antes da criação ja trouxe o estado completo
+                beers.putIfAbsent(id, copy(entry.getBeer()));
+                break;
+            case UPDATED:
+                BeerDTO beer = beers.get(id);
+                if (beer == null) {
+                    beers.put(id, copy(entry.getBeer()));
+                } else {
+                    beer.setQuantity(beer.getQuantity() + entry.getDelta());
+                }
+                break;
+            case DELETED:
+                beers.remove(id);
+                deletedIds.add(id);
+                break;
+        }
+    }
+
+//  Cervejas em ordem de id
+    public Collection<BeerDTO> getBeers() {
+        return beers.values();
+    }
+
+    public Set<Long> getDeletedIds() {
+        return deletedIds;
+    }
+
+//  Ultima sequencia do journal incluida neste estado
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+//  Maior id ja usado, de cerveja viva ou excluida: a sequence de ids recomeça depois dele na restauração,
+//  porque uma cerveja nova com o id de uma excluida seria descartada no proximo replay
+    public long getHighestId() {
+        return highestId;
+    }
+
+    private void seeId(Long id) {
+        highestId = Math.max(highestId, id);
+    }
+
+    private static BeerDTO copy(BeerDTO beer) {
+        return new BeerDTO(beer.getId(), beer.getName(), beer.getBrand(), beer.getMax(), beer.getQuantity(), beer.getType());
+    }
+}
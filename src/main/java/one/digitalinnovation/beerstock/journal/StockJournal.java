@@ -0,0 +1,220 @@
+package one.digitalinnovation.beerstock.journal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+// Journal append-only das alterações de cerveja (criação, estoque e exclusão), usado como auditoria e para replay
+// Quem altera a cerveja so coloca o registro em uma fila; uma unica thread grava os registros acumulados
+// no segmento mapeado em memória e faz um fsync por lote (group commit)
+// Por padrão (ack-timeout 0) quem alterou a cerveja so enfileira o registro e segue, sem esperar o disco: os registros
+// ainda na fila ou no lote em gravação podem ser perdidos em uma queda, e uma falha de gravação so aparece no log
+// Com fsync e ack-timeout maior que zero, quem alterou espera o fsync do lote do seu registro (até ack-timeout)
+// antes de responder: a alteração confirmada ao cliente não se perde, ao custo de um fsync na latencia de cada escrita
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "beerstock.journal.enabled", havingValue = "true")
+public class StockJournal {
+
+    private final Path directory;
+    private final long segmentSize;
+    private final boolean fsync;
+    private final int maxBatchSize;
+    private final long ackTimeoutNanos;
+    private final BlockingQueue<PendingEntry> queue;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private JournalSegment segment;
+    private long sequence;
+
+    private final Counter entries;
+    private final DistributionSummary batchSizes;
+    private final Timer batchWrites;
+
+    @Autowired
+    public StockJournal(@Value("${beerstock.journal.directory:data/journal}") String directory,
+                        @Value("${beerstock.journal.segment-size:64MB}") DataSize segmentSize,
+                        @Value("${beerstock.journal.fsync:true}") boolean fsync,
+                        @Value("${beerstock.journal.max-batch-size:1024}") int maxBatchSize,
+                        @Value("${beerstock.journal.queue-capacity:65536}") int queueCapacity,
+                        @Value("${beerstock.journal.ack-timeout:0s}") Duration ackTimeout,
+                        MeterRegistry meterRegistry) throws IOException {
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize.toBytes();
+        this.fsync = fsync;
+        this.maxBatchSize = maxBatchSize;
+        this.ackTimeoutNanos = ackTimeout.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        openLastSegment();
+
+        this.entries = Counter.builder("beerstock.journal.entries")
+                .description("Registros gravados no journal")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("beerstock.journal.batch.size")
+                .description("Registros gravados por fsync")
+                .register(meterRegistry);
+        this.batchWrites = Timer.builder("beerstock.journal.batch.write")
+                .description("Tempo de gravação de cada lote, com o fsync")
+                .register(meterRegistry);
+        Gauge.builder("beerstock.journal.queue.size", queue, BlockingQueue::size)
+                .description("Registros aguardando gravação")
+                .register(meterRegistry);
+
+        this.writerThread = new Thread(this::writeLoop, "stock-journal-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+//  Le, em ordem, os registros ja gravados com sequencia maior que a informada
+//  Segmentos inteiros anteriores a ela nem são abertos
+    public void read(long afterSequence, Consumer<JournalEntry> consumer) throws IOException {
+        List<Path> segments = JournalSegment.list(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            boolean nextStartsAfter = i + 1 < segments.size() && JournalSegment.firstSequence(segments.get(i + 1)) <= afterSequence + 1;
+            if (nextStartsAfter) {
+                continue;
+            }
+            JournalSegment.read(segments.get(i), entry -> {
+                if (entry.getSequence() > afterSequence) {
+                    consumer.accept(entry);
+                }
+            });
+        }
+    }
+
+//  Registra a alteração depois que ela foi confirmada no banco (alteração desfeita não vai para o journal)
+//  Enfileira e, com fsync e ack-timeout, espera o lote do registro chegar ao disco (o fsync é dividido com o lote)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) throws InterruptedException {
+        PendingEntry pending = new PendingEntry(JournalEntry.of(event, System.currentTimeMillis()));
+        if (!queue.offer(pending)) {
+//          Fila cheia: segura quem chamou em vez de perder a auditoria
+            queue.put(pending);
+        }
+        if (fsync && ackTimeoutNanos > 0) {
+            awaitWritten(pending);
+        }
+    }
+
+//  Grava o que ainda estiver na fila antes de encerrar
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+//  A alteração ja foi confirmada no banco: se o journal falhar ou demorar, so fica o aviso no log
+    private void awaitWritten(PendingEntry pending) throws InterruptedException {
+        try {
+            pending.written.get(ackTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            log.warn("Stock journal entry for beer {} was not written", pending.entry.getBeer().getId(), e.getCause());
+        } catch (TimeoutException e) {
+            log.warn("Stock journal entry for beer {} not written after {} ms", pending.entry.getBeer().getId(),
+                    TimeUnit.NANOSECONDS.toMillis(ackTimeoutNanos));
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingEntry> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEntry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                batchWrites.record(() -> write(batch));
+                entries.increment(batch.size());
+                batchSizes.record(batch.size());
+                batch.forEach(pending -> pending.written.complete(null));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Stock journal could not write {} entries", batch.size(), e);
+                batch.forEach(pending -> pending.written.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingEntry> batch) {
+        for (PendingEntry pending : batch) {
+            JournalEntry sequencedEntry = pending.entry.withSequence(sequence + 1);
+            if (!segment.append(sequencedEntry)) {
+                rollSegment(sequencedEntry.getSequence());
+                if (!segment.append(sequencedEntry)) {
+                    throw new IllegalStateException("Journal entry larger than the segment size: " + sequencedEntry);
+                }
+            }
+            sequence = sequencedEntry.getSequence();
+        }
+        if (fsync) {
+            segment.force();
+        }
+    }
+
+//  Fecha o segmento cheio e abre o proximo, começando na sequencia informada
+    private void rollSegment(long firstSequence) {
+        segment.force();
+        try {
+            segment = JournalSegment.open(directory, firstSequence, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+//  Continua do ultimo segmento existente, depois do ultimo registro valido
+    private void openLastSegment() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments = JournalSegment.list(directory);
+        long firstSequence = 1;
+        if (!segments.isEmpty()) {
+            firstSequence = JournalSegment.firstSequence(segments.get(segments.size() - 1));
+        }
+        segment = JournalSegment.open(directory, firstSequence, segmentSize);
+        sequence = segment.getLastSequence() > 0 ? segment.getLastSequence() : firstSequence - 1;
+    }
+
+//  Registro na fila e o aviso de que ele foi gravado (depois do fsync, quando ligado)
+    private static final class PendingEntry {
+
+        private final JournalEntry entry;
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        private PendingEntry(JournalEntry entry) {
+            this.entry = entry;
+        }
+    }
+}
@@ -2,15 +2,23 @@ package one.digitalinnovation.beerstock.mapper;
 
 import one.digitalinnovation.beerstock.dto.BeerDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import org.mapstruct.DecoratedWith;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
+// Conversões medidas pelo rastreamento de etapas das requisições (BeerMapperTracingDecorator)
+@DecoratedWith(BeerMapperTracingDecorator.class)
 public interface BeerMapper {
 
     BeerMapper INSTANCE = Mappers.getMapper(BeerMapper.class);
 
 //  Dado um DTO, converte para modelo
+//  A versão é controlada somente pelo Hibernate
+    @Mapping(target = "version", ignore = true)
+//  As reservas so mudam pelo ajuste de estoque
+    @Mapping(target = "reserved", ignore = true)
     Beer toModel(BeerDTO beerDTO);
 
 //  Dadu uma entidade, converte para DTO
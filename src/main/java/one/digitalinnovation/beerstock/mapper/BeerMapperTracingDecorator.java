@@ -0,0 +1,36 @@
+package one.digitalinnovation.beerstock.mapper;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.trace.RequestTraces;
+import one.digitalinnovation.beerstock.trace.Stage;
+
+// Decorator gerado junto do BeerMapper (@DecoratedWith): mede as conversões nas requisições amostradas
+public abstract class BeerMapperTracingDecorator implements BeerMapper {
+
+    private final BeerMapper delegate;
+
+    public BeerMapperTracingDecorator(BeerMapper delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Beer toModel(BeerDTO beerDTO) {
+        RequestTraces.open();
+        try {
+            return delegate.toModel(beerDTO);
+        } finally {
+            RequestTraces.close(Stage.MAPPER);
+        }
+    }
+
+    @Override
+    public BeerDTO toDTO(Beer beer) {
+        RequestTraces.open();
+        try {
+            return delegate.toDTO(beer);
+        } finally {
+            RequestTraces.close(Stage.MAPPER);
+        }
+    }
+}
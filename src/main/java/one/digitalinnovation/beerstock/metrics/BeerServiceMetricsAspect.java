@@ -0,0 +1,137 @@
+package one.digitalinnovation.beerstock.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Metricas de todos os metodos publicos do BeerService, publicadas em /actuator/metrics e /actuator/prometheus
+// beerstock.service            tempo por metodo, outcome (SUCCESS, CLIENT_ERROR, SERVER_ERROR) e exceção
+// beerstock.service.errors     quantidade de exceções por metodo e tipo (BeerStockExceededException, BeerNotFoundException...)
+// beerstock.stock.concurrency  quantos ajustes estavam em andamento na mesma cerveja quando um novo começou
+// beerstock.stock.contended    ajustes que começaram com outro ajuste da mesma cerveja em andamento
+// beerstock.stock.in.flight    ajustes de estoque em andamento
+@Aspect
+@Component
+public class BeerServiceMetricsAspect {
+
+    private static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration[] serviceLevelObjectives;
+
+//  Meters ja registrados, para não montar o id a cada chamada
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+
+//  Ajustes em andamento por id da cerveja (a entrada sai do mapa quando chega a zero)
+//  Entrada e saida alteram a contagem dentro do compute, atomicamente com a remoção
+    private final Map<Long, Integer> adjustmentsInFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger totalAdjustmentsInFlight;
+    private final DistributionSummary concurrency;
+    private final Counter contended;
+
+    @Autowired
+    public BeerServiceMetricsAspect(MeterRegistry meterRegistry,
+                                    @Value("${beerstock.metrics.service.slo:}") Duration[] serviceLevelObjectives) {
+        this.meterRegistry = meterRegistry;
+        this.serviceLevelObjectives = serviceLevelObjectives;
+        this.totalAdjustmentsInFlight = new AtomicInteger();
+        Gauge.builder("beerstock.stock.in.flight", totalAdjustmentsInFlight, AtomicInteger::get)
+                .description("Ajustes de estoque em andamento")
+                .register(meterRegistry);
+        this.concurrency = DistributionSummary.builder("beerstock.stock.concurrency")
+                .description("Ajustes em andamento na mesma cerveja, contando o que começou")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.contended = Counter.builder("beerstock.stock.contended")
+                .description("Ajustes iniciados com outro ajuste da mesma cerveja em andamento")
+                .register(meterRegistry);
+    }
+
+    @Around("execution(public * one.digitalinnovation.beerstock.service.BeerService.*(..))")
+    public Object timeServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        Long stockAdjustmentId = stockAdjustmentId(method, joinPoint.getArgs());
+        if (stockAdjustmentId != null) {
+            enterAdjustment(stockAdjustmentId);
+        }
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            timer(method, "SUCCESS", NO_EXCEPTION).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            String exception = e.getClass().getSimpleName();
+            timer(method, outcome(e), exception).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            errorCounter(method, exception).increment();
+            throw e;
+        } finally {
+            if (stockAdjustmentId != null) {
+                exitAdjustment(stockAdjustmentId);
+            }
+        }
+    }
+
+//  Somente increment e decrement alteram o estoque de uma cerveja (id no primeiro argumento)
+    private Long stockAdjustmentId(String method, Object[] args) {
+        if (("increment".equals(method) || "decrement".equals(method)) && args.length > 0 && args[0] instanceof Long) {
+            return (Long) args[0];
+        }
+        return null;
+    }
+
+    private void enterAdjustment(Long id) {
+        int inFlightForBeer = adjustmentsInFlight.compute(id, (key, inFlight) -> inFlight == null ? 1 : inFlight + 1);
+        totalAdjustmentsInFlight.incrementAndGet();
+        concurrency.record(inFlightForBeer);
+        if (inFlightForBeer > 1) {
+            contended.increment();
+        }
+    }
+
+    private void exitAdjustment(Long id) {
+        totalAdjustmentsInFlight.decrementAndGet();
+        adjustmentsInFlight.computeIfPresent(id, (key, inFlight) -> inFlight == 1 ? null : inFlight - 1);
+    }
+
+//  Exceções com @ResponseStatus 4xx são erros do cliente (ex.: estoque excedido, cerveja não encontrada)
+    private String outcome(Throwable e) {
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(e.getClass(), ResponseStatus.class);
+        return responseStatus != null && responseStatus.code().is4xxClientError() ? "CLIENT_ERROR" : "SERVER_ERROR";
+    }
+
+    private Timer timer(String method, String outcome, String exception) {
+        return timers.computeIfAbsent(method + ':' + outcome + ':' + exception, key -> Timer.builder("beerstock.service")
+                .description("Tempo dos metodos do BeerService")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(serviceLevelObjectives)
+                .register(meterRegistry));
+    }
+
+    private Counter errorCounter(String method, String exception) {
+        return errorCounters.computeIfAbsent(method + ':' + exception, key -> Counter.builder("beerstock.service.errors")
+                .description("Exceções lançadas pelos metodos do BeerService")
+                .tag("method", method)
+                .tag("exception", exception)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,49 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.Beer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collection;
+
+// Carga em massa da tabela beer direto por JDBC, sem passar pelo Hibernate (replay do journal e restauração)
+@Repository
+public class BeerBulkLoader {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public BeerBulkLoader(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+//  Substitui todas as cervejas pelas informadas, mantendo os ids
+//  highestId é o maior id ja usado (inclusive de cervejas excluidas): os ids novos começam depois dele
+//  Reservas não são carregadas: elas so existem em memória e não sobrevivem a uma reinicialização
+    @Transactional
+    public void replaceAll(Collection<Beer> beers, long highestId) {
+        jdbcTemplate.update("DELETE FROM beer");
+        jdbcTemplate.batchUpdate("INSERT INTO beer (id, name, brand, max, quantity, reserved, type, version) VALUES (?, ?, ?, ?, ?, 0, ?, 0)",
+                beers, BATCH_SIZE, (statement, beer) -> {
+                    statement.setLong(1, beer.getId());
+                    statement.setString(2, beer.getName());
+                    statement.setString(3, beer.getBrand());
+                    statement.setInt(4, beer.getMax());
+                    statement.setInt(5, beer.getQuantity());
+                    statement.setString(6, beer.getType().name());
+                });
+//      Com o otimizador pooled, o valor da sequence é o fim do bloco de ids: reiniciar em maior id + tamanho do bloco
+//      faz o proximo bloco começar logo depois do maior id ja usado
+        long maxId = Math.max(highestId, beers.stream().mapToLong(Beer::getId).max().orElse(0));
+        jdbcTemplate.execute("ALTER SEQUENCE beer_sequence RESTART WITH " + (maxId + Beer.ID_ALLOCATION_SIZE));
+//      O que estava em cache não corresponde mais à tabela
+        entityManagerFactory.getCache().evictAll();
+    }
+}
@@ -1,13 +1,56 @@
 package one.digitalinnovation.beerstock.repository;
 
+import one.digitalinnovation.beerstock.dto.BeerDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 // Tem a responsabilidade de conversar com o banco de dados
 // Criar, Atualizar, Deletar, Buscar ...
-public interface BeerRepository extends JpaRepository<Beer, Long> {
+public interface BeerRepository extends JpaRepository<Beer, Long>, BeerRepositoryCustom {
 
+//  Resultado guardado no cache de consultas do Hibernate (invalidado a cada insert/delete na tabela beer)
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = "beer-by-name")
+    })
     Optional<Beer> findByName(String name);
+
+//  Projeções para as leituras somente de consulta: o BeerDTO é montado direto do resultado da consulta,
+//  sem entidade gerenciada nem copia para dirty checking (e sem passar pelo BeerMapper)
+//  Sem cache de consultas: a linha projetada leva a quantidade, e o UPDATE de estoque não invalida as consultas
+//  da tabela beer (o cache na frente desta consulta é o BeerNameCache)
+    @Query("SELECT new one.digitalinnovation.beerstock.dto.BeerDTO(b.id, b.name, b.brand, b.max, b.quantity, b.type) " +
+            "FROM Beer b WHERE b.name = :name")
+    Optional<BeerDTO> findProjectedByName(@Param("name") String name);
+
+    @Query("SELECT new one.digitalinnovation.beerstock.dto.BeerDTO(b.id, b.name, b.brand, b.max, b.quantity, b.type) " +
+            "FROM Beer b")
+    List<BeerDTO> findAllProjected();
+
+//  Nomes, dentre os informados, que ja estão cadastrados (uma consulta para varios nomes)
+    @Query("SELECT b.name FROM Beer b WHERE b.name IN :names")
+    List<String> findRegisteredNames(@Param("names") Collection<String> names);
+
+//  Todas as cervejas como cursor forward-only, lidas do banco em blocos de fetch size
+//  O Stream precisa ser consumido (e fechado) dentro de uma transação
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT b FROM Beer b ORDER BY b.id")
+    Stream<Beer> streamAll();
 }
@@ -0,0 +1,24 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+import java.util.List;
+
+// Consultas que precisam ser montadas na mão (implementadas em BeerRepositoryImpl)
+public interface BeerRepositoryCustom {
+
+//  Paginação por cursor (keyset): cervejas com id maior que afterId, em ordem de id
+//  Filtros nulos são ignorados, assim a consulta so usa os predicados informados
+    List<Beer> findPage(Long afterId, BeerType type, String brand, Integer minQuantity, Integer maxQuantity, int limit);
+
+//  Aplica os deltas de estoque e de reserva em um único UPDATE condicional, sem ler a cerveja antes (e incrementa a versão)
+//  So altera a linha se o resultado continuar com 0 <= reserved <= quantity <= max
+//  Retorna a quantidade de linhas afetadas (0 = cerveja não existe ou limite violado)
+//  Remove do cache de segundo nivel apenas a cerveja alterada, e não a região inteira
+    int adjustStock(Long id, int delta, int reservedDelta);
+
+//  Igual ao adjustStock, mas so altera a linha se a versão ainda for expectedVersion
+//  Retorna 0 também quando a cerveja foi alterada depois de lida
+    int adjustStock(Long id, int delta, int reservedDelta, long expectedVersion);
+}
@@ -0,0 +1,111 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+
+// Implementação das consultas de BeerRepositoryCustom, usada pelo Spring Data junto do BeerRepository
+public class BeerRepositoryImpl implements BeerRepositoryCustom {
+
+//  Espaço de consulta proprio do UPDATE de estoque: como não corresponde a nenhuma entidade,
+//  o Hibernate não limpa a região inteira de Beer nem as consultas em cache (estoque não muda nome)
+    private static final String STOCK_QUERY_SPACE = "beer_stock";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Beer> findPage(Long afterId, BeerType type, String brand, Integer minQuantity, Integer maxQuantity, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Beer> query = criteriaBuilder.createQuery(Beer.class);
+        Root<Beer> beer = query.from(Beer.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null) {
+            predicates.add(criteriaBuilder.greaterThan(beer.get("id"), afterId));
+        }
+        if (type != null) {
+            predicates.add(criteriaBuilder.equal(beer.get("type"), type));
+        }
+        if (brand != null) {
+            predicates.add(criteriaBuilder.equal(beer.get("brand"), brand));
+        }
+        if (minQuantity != null) {
+            predicates.add(criteriaBuilder.greaterThanOrEqualTo(beer.get("quantity"), minQuantity));
+        }
+        if (maxQuantity != null) {
+            predicates.add(criteriaBuilder.lessThanOrEqualTo(beer.get("quantity"), maxQuantity));
+        }
+        query.where(predicates.toArray(new Predicate[0]))
+                .orderBy(criteriaBuilder.asc(beer.get("id")));
+
+//      Somente leitura: o Hibernate não guarda copia das entidades para dirty checking
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int adjustStock(Long id, int delta, int reservedDelta) {
+        return adjustStock(id, delta, reservedDelta, "", null);
+    }
+
+    @Override
+    @Transactional
+    public int adjustStock(Long id, int delta, int reservedDelta, long expectedVersion) {
+        return adjustStock(id, delta, reservedDelta, "AND version = :expectedVersion", expectedVersion);
+    }
+
+    private int adjustStock(Long id, int delta, int reservedDelta, String versionCondition, Long expectedVersion) {
+//      Grava as alterações pendentes antes do UPDATE, como o @Modifying(flushAutomatically = true)
+        entityManager.flush();
+//      Com reserved >= 0 e reserved <= quantity, quantity >= 0 também fica garantido
+        NativeQuery<?> query = entityManager.createNativeQuery("UPDATE beer SET quantity = quantity + :delta, " +
+                "reserved = reserved + :reservedDelta, version = version + 1 " +
+                "WHERE id = :id AND reserved + :reservedDelta >= 0 " +
+                "AND reserved + :reservedDelta <= quantity + :delta AND quantity + :delta <= max " + versionCondition)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(STOCK_QUERY_SPACE)
+                .setParameter("id", id)
+                .setParameter("delta", delta)
+                .setParameter("reservedDelta", reservedDelta);
+        if (expectedVersion != null) {
+            query.setParameter("expectedVersion", expectedVersion);
+        }
+        int updatedRows = query.executeUpdate();
+//      A cerveja em memória ficou desatualizada, como o @Modifying(clearAutomatically = true)
+        entityManager.clear();
+        evictFromSecondLevelCache(id);
+        return updatedRows;
+    }
+
+//  Remove a cerveja do cache agora (a releitura nesta transação vai ao banco) e de novo depois do commit,
+//  porque outra transação pode ter colocado o valor antigo no cache enquanto este UPDATE não estava confirmado
+    private void evictFromSecondLevelCache(Long id) {
+        javax.persistence.Cache cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(Beer.class, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(Beer.class, id);
+                }
+            });
+        }
+    }
+}
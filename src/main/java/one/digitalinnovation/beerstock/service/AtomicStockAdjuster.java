@@ -0,0 +1,38 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+// Estrategia padrão: cada ajuste é um UPDATE condicional direto no banco
+@Component
+@ConditionalOnProperty(name = "beerstock.stock.mode", havingValue = "atomic", matchIfMissing = true)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class AtomicStockAdjuster implements StockAdjuster {
+
+    private final BeerRepository beerRepository;
+
+    @Override
+    @Transactional
+    public Beer adjust(Long id, int delta, int reservedDelta) throws BeerNotFoundException, BeerStockExceededException {
+//      O UPDATE so é aplicado se o total continuar entre as reservas e o maximo
+        int updatedRows = beerRepository.adjustStock(id, delta, reservedDelta);
+//      Nenhuma linha alterada: ou a cerveja não existe ou o limite seria violado
+//      So faz a consulta extra de existencia nesse caso
+        if (updatedRows == 0) {
+            if (!beerRepository.existsById(id)) {
+                throw new BeerNotFoundException(id);
+            }
+            throw new BeerStockExceededException(id, Math.abs(delta != 0 ? delta : reservedDelta));
+        }
+//      Busca o novo nivel de estoque na mesma transação
+        return beerRepository.findById(id)
+                .orElseThrow(() -> new BeerNotFoundException(id));
+    }
+}
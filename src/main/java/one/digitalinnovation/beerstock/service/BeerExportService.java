@@ -0,0 +1,62 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Exporta o catalogo inteiro em NDJSON (uma cerveja em JSON por linha)
+// Cada cerveja é lida do cursor, escrita na resposta e descartada, com memória constante
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerExportService {
+
+//  A cada quantas cervejas os bytes escritos são enviados ao cliente
+    private static final int FLUSH_INTERVAL = 500;
+
+    private final BeerRepository beerRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+//  Retorna a quantidade de cervejas exportadas
+    @Transactional(readOnly = true)
+    public long exportAll(OutputStream outputStream) throws IOException {
+        long exported = 0;
+//      O envio ao cliente é feito a cada FLUSH_INTERVAL cervejas, não a cada linha
+        ObjectWriter writer = objectMapper.writerFor(BeerDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<Beer> beers = beerRepository.streamAll();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+//          Quem fecha a resposta é o Spring MVC
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+//          As linhas ja são separadas por '\n'; sem isso o Jackson poe um espaço antes de cada valor depois do primeiro
+            generator.setRootValueSeparator(null);
+            Iterator<Beer> iterator = beers.iterator();
+            while (iterator.hasNext()) {
+                Beer beer = iterator.next();
+                writer.writeValue(generator, beerMapper.toDTO(beer));
+                generator.writeRaw('\n');
+//              Tira a cerveja do contexto de persistencia para ele não crescer
+                entityManager.detach(beer);
+                if (++exported % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return exported;
+    }
+}
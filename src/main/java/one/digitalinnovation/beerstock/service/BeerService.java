@@ -1,18 +1,27 @@
 package one.digitalinnovation.beerstock.service;
 
 import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.cache.BeerNameCache;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageRequestDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
 import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
 import one.digitalinnovation.beerstock.mapper.BeerMapper;
 import one.digitalinnovation.beerstock.repository.BeerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 // Indicar que está classe vai ser gerenciada pelo spring
@@ -22,7 +31,15 @@ import java.util.stream.Collectors;
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BeerService {
 
+//  Quantidade de nomes por consulta de duplicidade na criação em lote
+    private static final int NAME_LOOKUP_CHUNK_SIZE = 1000;
+//  Tamanho padrão da pagina na listagem paginada
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     private final BeerRepository beerRepository;
+    private final StockAdjuster stockAdjuster;
+    private final BeerNameCache beerNameCache;
+    private final ApplicationEventPublisher eventPublisher;
     private final BeerMapper beerMapper = BeerMapper.INSTANCE;
 
 //  Criação de cerveja
@@ -33,41 +50,119 @@ public class BeerService {
         Beer beer = beerMapper.toModel(beerDTO);
 //      Mas é preciso converter para um formato que o repository conversa
         Beer savedBeer = beerRepository.save(beer);
-        return beerMapper.toDTO(savedBeer);
+        BeerDTO savedBeerDTO = beerMapper.toDTO(savedBeer);
+        eventPublisher.publishEvent(BeerChangedEvent.created(savedBeerDTO));
+        return savedBeerDTO;
+    }
+
+//  Criação de cervejas em lote
+    @Transactional
+    public List<BeerDTO> createBeers(List<BeerDTO> beersDTO) throws BeerAlreadyRegisteredException {
+//      Verifica todos os nomes de uma vez, em vez de um findByName por cerveja
+        verifyIfAnyIsAlreadyRegistered(beersDTO);
+        List<Beer> beers = new ArrayList<>(beersDTO.size());
+        for (BeerDTO beerDTO : beersDTO) {
+            Beer beer = beerMapper.toModel(beerDTO);
+//          Id sempre vem da sequence, assim todos são inserts novos
+            beer.setId(null);
+            beers.add(beer);
+        }
+//      Os inserts são enviados em lotes JDBC de hibernate.jdbc.batch_size no commit
+        List<BeerDTO> savedBeersDTO = beerRepository.saveAll(beers)
+                .stream()
+                .map(beerMapper::toDTO)
+                .collect(Collectors.toList());
+//      Os eventos só são tratados depois do commit do lote
+        savedBeersDTO.forEach(savedBeerDTO -> eventPublisher.publishEvent(BeerChangedEvent.created(savedBeerDTO)));
+        return savedBeersDTO;
     }
 
 //  Busca por nome
+    @Transactional(readOnly = true)
     public BeerDTO findByName(String name) throws BeerNotFoundException {
-        Beer foundBeer = beerRepository.findByName(name)
+//      Consulta o cache antes do banco, inclusive para nomes que não existem
+        return beerNameCache.get(name, this::loadByName)
                 .orElseThrow(() -> new BeerNotFoundException(name));
-        return beerMapper.toDTO(foundBeer);
     }
 
 //  Listagem
+//  Transação somente leitura: o Hibernate não faz flush nem dirty checking ao final
+    @Transactional(readOnly = true)
     public List<BeerDTO> listAll() {
-        return beerRepository.findAll()
-                .stream()
+//      Os DTOs ja vem prontos da consulta, sem carregar entidades
+        return beerRepository.findAllProjected();
+    }
+
+//  Listagem paginada por cursor, com filtros opcionais
+    public BeerPageDTO listPage(BeerPageRequestDTO pageRequestDTO) {
+        int size = pageRequestDTO.getSize() != null ? pageRequestDTO.getSize() : DEFAULT_PAGE_SIZE;
+//      Busca um a mais para saber se existe proxima pagina, sem precisar de count
+        List<Beer> beers = beerRepository.findPage(pageRequestDTO.getAfter(), pageRequestDTO.getType(), pageRequestDTO.getBrand(),
+                pageRequestDTO.getMinQuantity(), pageRequestDTO.getMaxQuantity(), size + 1);
+        boolean hasNext = beers.size() > size;
+        List<BeerDTO> content = beers.stream()
+                .limit(size)
                 .map(beerMapper::toDTO)
                 .collect(Collectors.toList());
+        Long nextCursor = hasNext ? content.get(content.size() - 1).getId() : null;
+        return new BeerPageDTO(content, nextCursor);
     }
 
 //  Delete
     public void deleteById(Long id) throws BeerNotFoundException {
-        verifyIfExists(id);
+        Beer beerToDelete = verifyIfExists(id);
         beerRepository.deleteById(id);
+//      O evento leva o estoque da estrategia: no ledger a linha lida do banco não tem os deltas ainda não gravados
+        Beer deletedBeer = stockAdjuster.evict(beerToDelete);
+        eventPublisher.publishEvent(BeerChangedEvent.deleted(beerMapper.toDTO(deletedBeer)));
     }
 
 //  --------------------------------------------------------------------------------------------------
 //  Metodos auxiliares
     private void verifyIfIsAlreadyRegistered(String name) throws BeerAlreadyRegisteredException {
-//      Busca no banco de dados
-        Optional<Beer> optSavedBeer = beerRepository.findByName(name);
+//      Busca no cache ou, se não tiver, no banco de dados
+        Optional<BeerDTO> optSavedBeer = beerNameCache.get(name, this::loadByName);
 //      Se estiver presente, lança uma excessão
         if (optSavedBeer.isPresent()) {
             throw new BeerAlreadyRegisteredException(name);
         }
     }
 
+//  Verifica se algum nome se repete no lote ou ja esta cadastrado no banco
+    private void verifyIfAnyIsAlreadyRegistered(List<BeerDTO> beersDTO) throws BeerAlreadyRegisteredException {
+        Set<String> names = new LinkedHashSet<>();
+        Set<String> registeredNames = new LinkedHashSet<>();
+        for (BeerDTO beerDTO : beersDTO) {
+            if (!names.add(beerDTO.getName())) {
+                registeredNames.add(beerDTO.getName());
+            }
+        }
+//      Busca no banco em blocos, para não passar do limite de parametros do IN
+        List<String> namesToLookup = new ArrayList<>(names);
+        for (int from = 0; from < namesToLookup.size(); from += NAME_LOOKUP_CHUNK_SIZE) {
+            int to = Math.min(from + NAME_LOOKUP_CHUNK_SIZE, namesToLookup.size());
+            registeredNames.addAll(beerRepository.findRegisteredNames(namesToLookup.subList(from, to)));
+        }
+        if (!registeredNames.isEmpty()) {
+            throw new BeerAlreadyRegisteredException(String.join(", ", registeredNames));
+        }
+    }
+
+//  Carga do cache de nomes
+    private Optional<BeerDTO> loadByName(String name) {
+        return beerRepository.findProjectedByName(name);
+    }
+
+//  Publica a alteração de estoque com o estado anterior reconstruido a partir do delta
+//  No modo ledger o estado é o do contador em memória, antes do banco: ver LedgerStockAdjuster
+    private BeerDTO publishStockChange(Beer adjustedBeer, int delta) {
+        BeerDTO current = beerMapper.toDTO(adjustedBeer);
+        BeerDTO previous = beerMapper.toDTO(adjustedBeer);
+        previous.setQuantity(current.getQuantity() - delta);
+        eventPublisher.publishEvent(BeerChangedEvent.updated(previous, current));
+        return current;
+    }
+
 //  Verificação se ja existe
     private Beer verifyIfExists(Long id) throws BeerNotFoundException {
         return beerRepository.findById(id)
@@ -76,37 +171,34 @@ public class BeerService {
 
 //  Incremento
     public BeerDTO increment(Long id, int quantityToIncrement) throws BeerNotFoundException, BeerStockExceededException {
-//      Verifica se a cerveja existe
-        Beer beerToIncrementStock = verifyIfExists(id);
-//      total de cervejas depois do incremento
-        int quantityAfterIncrement = quantityToIncrement + beerToIncrementStock.getQuantity();
-//      Vai fazer todo o processo apenas se o total for menor que o maximo
-        if (quantityAfterIncrement <= beerToIncrementStock.getMax()) {
-//          incrementa na cerveja
-            beerToIncrementStock.setQuantity(beerToIncrementStock.getQuantity() + quantityToIncrement);
-//          salva a cerveja no banco de dados
-            Beer incrementedBeerStock = beerRepository.save(beerToIncrementStock);
-            return beerMapper.toDTO(incrementedBeerStock);
-        }
-        throw new BeerStockExceededException(id, quantityToIncrement);
+//      A estrategia configurada so aplica o incremento se o total continuar menor ou igual ao maximo
+        Beer incrementedBeerStock = stockAdjuster.adjust(id, quantityToIncrement);
+        return publishStockChange(incrementedBeerStock, quantityToIncrement);
     }
 
 //  Feito por Otavio Koike
 //  Decremento
-    public BeerDTO decrement(Long id, int quantityToIncrement) throws BeerNotFoundException, BeerStockExceededException {
-//      Verifica se a cerveja existe
-        Beer beerToDecrementStock = verifyIfExists(id);
-//      total de cervejas depois do decremento
-        int quantityAfterIncrement = beerToDecrementStock.getQuantity() - quantityToIncrement;
-//      Vai fazer todo o processo apenas se o total for maior que zero
-        if (quantityAfterIncrement >= 0) {
-//          Decrementa na cerveja
-            beerToDecrementStock.setQuantity(beerToDecrementStock.getQuantity() - quantityToIncrement);
-//          salva a cerveja no banco de dados
-            Beer decrementedBeerStock = beerRepository.save(beerToDecrementStock);
-            return beerMapper.toDTO(decrementedBeerStock);
-        }
-        throw new BeerStockExceededException(id, quantityToIncrement);
+    public BeerDTO decrement(Long id, int quantityToDecrement) throws BeerNotFoundException, BeerStockExceededException {
+//      A estrategia configurada so aplica o decremento se o total continuar maior ou igual a zero
+        Beer decrementedBeerStock = stockAdjuster.adjust(id, -quantityToDecrement);
+        return publishStockChange(decrementedBeerStock, -quantityToDecrement);
+    }
+
+//  Reserva: segura unidades sem tira-las do estoque, so as disponiveis (quantity - reserved) podem ser reservadas
+    public BeerDTO reserve(Long id, int quantityToReserve) throws BeerNotFoundException, BeerStockExceededException {
+//      A quantidade não muda, então não existe evento de alteração da cerveja
+        return beerMapper.toDTO(stockAdjuster.adjust(id, 0, quantityToReserve));
+    }
+
+//  Libera unidades reservadas (cancelamento ou expiração da reserva)
+    public BeerDTO release(Long id, int quantityToRelease) throws BeerNotFoundException, BeerStockExceededException {
+        return beerMapper.toDTO(stockAdjuster.adjust(id, 0, -quantityToRelease));
+    }
+
+//  Confirma a reserva: as unidades saem da reserva e do estoque no mesmo ajuste
+    public BeerDTO confirmReservation(Long id, int quantityReserved) throws BeerNotFoundException, BeerStockExceededException {
+        Beer confirmedBeerStock = stockAdjuster.adjust(id, -quantityReserved, -quantityReserved);
+        return publishStockChange(confirmedBeerStock, -quantityReserved);
     }
 
 
@@ -0,0 +1,303 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockConflictException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Estrategia com agrupamento (group commit): os ajustes concorrentes de uma mesma cerveja entram em uma fila,
+// e o primeiro da fila valida todos em ordem de chegada e grava a soma dos aceitos em um unico UPDATE
+// Cada chamador recebe o proprio resultado (o estoque logo depois do seu ajuste); so os ajustes que
+// violariam os limites são recusados. Sem disputa o lote tem um ajuste so e custa uma leitura a mais que o atomic
+// Cada lote roda em uma transação nova (REQUIRES_NEW); dentro de uma transação de quem chamou (ex.: StockBatchService)
+// o ajuste não é agrupado e vira um UPDATE condicional nela, como no atomic: uma transação nova pediria uma segunda
+// conexão enquanto a de fora segura a primeira (com o pool esgotado, todas esperariam) e escaparia do rollback do lote
+// Quem espera a vez na fila desiste depois de max-wait (ex.: o lote da frente esta preso esperando conexão ou lock)
+// com BeerStockConflictException; um ajuste que ja entrou no lote em gravação espera o resultado dele
+@Component
+@ConditionalOnProperty(name = "beerstock.stock.mode", havingValue = "coalescing")
+public class CoalescingStockAdjuster implements StockAdjuster {
+
+    private final BeerRepository beerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final Duration maxWait;
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+//  Usado dentro da transação de quem chamou e, em transações proprias, quando a cerveja mudou entre a leitura
+//  e o UPDATE do lote (ex.: ajuste feito por outra instancia ou dentro de um StockBatchService)
+//  Não é um proxy do Spring: o @Transactional dele não vale, a transação vem de fora ou do transactionTemplate
+    private final AtomicStockAdjuster fallbackAdjuster;
+
+    private final DistributionSummary batchSize;
+    private final Counter fallbacks;
+
+    @Autowired
+    public CoalescingStockAdjuster(BeerRepository beerRepository, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                   @Value("${beerstock.stock.coalescing.max-batch-size:256}") int maxBatchSize,
+                                   @Value("${beerstock.stock.coalescing.max-wait:5s}") Duration maxWait) {
+        this.beerRepository = beerRepository;
+//      Cada lote na propria transação: os ajustes de outros chamadores não podem entrar na transação de quem grava
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxBatchSize = maxBatchSize;
+        this.maxWait = maxWait;
+        this.fallbackAdjuster = new AtomicStockAdjuster(beerRepository);
+        this.batchSize = DistributionSummary.builder("beerstock.stock.coalescing.batch-size")
+                .description("Ajustes agrupados em cada gravação")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("beerstock.stock.coalescing.fallbacks")
+                .description("Lotes gravados um ajuste por vez porque a cerveja mudou entre a leitura e o UPDATE")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Beer adjust(Long id, int delta, int reservedDelta) throws BeerNotFoundException, BeerStockExceededException {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return fallbackAdjuster.adjust(id, delta, reservedDelta);
+        }
+        Lane lane = lanes.computeIfAbsent(id, beerId -> new Lane());
+        PendingAdjustment adjustment = new PendingAdjustment(delta, reservedDelta);
+        List<PendingAdjustment> batch = lane.awaitTurn(adjustment);
+        if (batch == null) {
+            throw new BeerStockConflictException(id, maxWait);
+        }
+//      Lote vazio: outro chamador ja gravou este ajuste junto com o dele
+        if (!batch.isEmpty()) {
+            try {
+                writeBatch(id, batch);
+            } finally {
+                lane.finish(batch);
+            }
+        }
+        return adjustment.result(id);
+    }
+
+//  Ajustes esperando a vez na fila da cerveja, sem contar o lote sendo gravado
+    int queued(Long id) {
+        Lane lane = lanes.get(id);
+        return lane != null ? lane.queued() : 0;
+    }
+
+    @Override
+    public Beer evict(Beer deletedBeer) {
+//      Quem ainda esta na fila antiga termina nela; o UPDATE condicional recusa o que sobrar da cerveja excluida
+        lanes.remove(deletedBeer.getId());
+        return deletedBeer;
+    }
+
+    private void writeBatch(Long id, List<PendingAdjustment> batch) {
+        batchSize.record(batch.size());
+        try {
+            Boolean written = transactionTemplate.execute(status -> writeFolded(id, batch));
+            if (Boolean.TRUE.equals(written)) {
+                return;
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(adjustment -> adjustment.reject(e));
+            return;
+        }
+//      A versão mudou depois da leitura: aplica cada ajuste com o UPDATE condicional, na ordem de chegada
+        fallbacks.increment();
+        for (PendingAdjustment adjustment : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> writeAlone(id, adjustment));
+            } catch (RuntimeException e) {
+                adjustment.reject(e);
+            }
+        }
+    }
+
+    private void writeAlone(Long id, PendingAdjustment adjustment) {
+        try {
+            adjustment.accept(fallbackAdjuster.adjust(id, adjustment.delta, adjustment.reservedDelta));
+        } catch (BeerNotFoundException | BeerStockExceededException e) {
+            adjustment.reject(e);
+        }
+    }
+
+//  Valida os ajustes em ordem sobre o estoque lido e grava a soma dos aceitos
+//  O UPDATE é condicional à versão lida; retorna false se ele não alterou a linha (cerveja mudou depois da leitura)
+    private boolean writeFolded(Long id, List<PendingAdjustment> batch) {
+        Beer beer = beerRepository.findById(id).orElse(null);
+        if (beer == null) {
+            batch.forEach(adjustment -> adjustment.reject(new BeerNotFoundException(id)));
+            return true;
+        }
+        int quantity = beer.getQuantity();
+        int reserved = beer.getReserved();
+        int foldedDelta = 0;
+        int foldedReservedDelta = 0;
+        long readVersion = beer.getVersion();
+//      O UPDATE incrementa a versão uma vez para o lote inteiro
+        Long version = readVersion + 1;
+        List<Beer> results = new ArrayList<>(batch.size());
+        for (PendingAdjustment adjustment : batch) {
+            int quantityAfterAdjustment = quantity + adjustment.delta;
+            int reservedAfterAdjustment = reserved + adjustment.reservedDelta;
+            if (reservedAfterAdjustment < 0 || reservedAfterAdjustment > quantityAfterAdjustment || quantityAfterAdjustment > beer.getMax()) {
+                results.add(null);
+                continue;
+            }
+            quantity = quantityAfterAdjustment;
+            reserved = reservedAfterAdjustment;
+            foldedDelta += adjustment.delta;
+            foldedReservedDelta += adjustment.reservedDelta;
+            results.add(new Beer(beer.getId(), beer.getName(), beer.getBrand(), beer.getMax(), quantity, reserved,
+                    beer.getType(), version));
+        }
+        if ((foldedDelta != 0 || foldedReservedDelta != 0) && beerRepository.adjustStock(id, foldedDelta, foldedReservedDelta, readVersion) == 0) {
+            return false;
+        }
+//      Os resultados so são entregues depois do commit, na Lane.finish
+        for (int i = 0; i < batch.size(); i++) {
+            PendingAdjustment adjustment = batch.get(i);
+            Beer result = results.get(i);
+            if (result != null) {
+                adjustment.accept(result);
+            } else {
+                adjustment.reject(new BeerStockExceededException(id, Math.abs(adjustment.delta != 0 ? adjustment.delta : adjustment.reservedDelta)));
+            }
+        }
+        return true;
+    }
+
+//  Fila de ajustes de uma cerveja: quem chega na frente grava o lote, os demais esperam o resultado ou a vez
+    private final class Lane {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private final ArrayDeque<PendingAdjustment> queue = new ArrayDeque<>();
+        private boolean writing;
+
+//      Retorna o lote a gravar quando chega a vez do ajuste, vazio se outro chamador ja o gravou,
+//      ou null se max-wait passou (ou a thread foi interrompida) com o ajuste ainda na fila, que então sai dela
+        private List<PendingAdjustment> awaitTurn(PendingAdjustment adjustment) {
+            lock.lock();
+            try {
+                queue.addLast(adjustment);
+                long remainingNanos = maxWait.toNanos();
+                boolean interrupted = false;
+                while (!adjustment.done && (writing || queue.peekFirst() != adjustment)) {
+                    if (remainingNanos > 0 && !interrupted) {
+                        try {
+                            remainingNanos = changed.awaitNanos(remainingNanos);
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    } else if (queue.remove(adjustment)) {
+//                      Acorda o proximo, que pode ter virado o primeiro da fila
+                        changed.signalAll();
+                        if (interrupted) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return null;
+                    } else {
+//                      Ja esta no lote em gravação: o resultado depende de quem grava, não pode ser recusado
+                        changed.awaitUninterruptibly();
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                if (adjustment.done) {
+                    return List.of();
+                }
+//              Leva os ajustes que chegaram enquanto o lote anterior era gravado (ele incluso)
+                writing = true;
+                List<PendingAdjustment> batch = new ArrayList<>(Math.min(queue.size(), maxBatchSize));
+                Iterator<PendingAdjustment> pending = queue.iterator();
+                while (pending.hasNext() && batch.size() < maxBatchSize) {
+                    batch.add(pending.next());
+                    pending.remove();
+                }
+                return batch;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int queued() {
+            lock.lock();
+            try {
+                return queue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+//      Acorda os chamadores do lote gravado e o proximo da fila, que passa a gravar o lote seguinte
+        private void finish(List<PendingAdjustment> batch) {
+            lock.lock();
+            try {
+                batch.forEach(adjustment -> adjustment.done = true);
+                writing = false;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+//  Ajuste na fila e o resultado dele, publicados para o chamador pela Lane (done sob o lock)
+    private static final class PendingAdjustment {
+
+        private final int delta;
+        private final int reservedDelta;
+        private Beer beer;
+        private Exception error;
+        private boolean done;
+
+        private PendingAdjustment(int delta, int reservedDelta) {
+            this.delta = delta;
+            this.reservedDelta = reservedDelta;
+        }
+
+        private void accept(Beer adjustedBeer) {
+            this.beer = adjustedBeer;
+            this.error = null;
+        }
+
+        private void reject(Exception e) {
+            this.beer = null;
+            this.error = e;
+        }
+
+        private Beer result(Long id) throws BeerNotFoundException, BeerStockExceededException {
+            if (error instanceof BeerNotFoundException) {
+                throw (BeerNotFoundException) error;
+            }
+            if (error instanceof BeerStockExceededException) {
+                throw (BeerStockExceededException) error;
+            }
+            if (error != null) {
+                throw (RuntimeException) error;
+            }
+            if (beer == null) {
+                throw new IllegalStateException("Stock adjustment for beer " + id + " finished without a result");
+            }
+            return beer;
+        }
+    }
+}
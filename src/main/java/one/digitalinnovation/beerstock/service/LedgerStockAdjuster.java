@@ -0,0 +1,208 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.event.StockFlushedEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Estrategia em memória: o estoque de cada cerveja fica em um contador atualizado por CAS
+// Os deltas acumulados são gravados no banco em lotes periodicos (write-behind)
+// Enquanto o lote não é gravado, as leituras do banco ficam atrasadas no maximo flush-interval-ms
+// O BeerService publica cada ajuste com o estado em memória (cache de nomes, views, journal); as leituras do banco
+// so o veem no flush, que publica o StockFlushedEvent (e as ETags mudam de novo). Até lá as duas visões divergem
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "beerstock.stock.mode", havingValue = "ledger")
+public class LedgerStockAdjuster implements StockAdjuster {
+
+    private final BeerRepository beerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<Long, StockCounter> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LedgerStockAdjuster(BeerRepository beerRepository, PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher) {
+        this.beerRepository = beerRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public Beer adjust(Long id, int delta, int reservedDelta) throws BeerNotFoundException, BeerStockExceededException {
+        StockCounter counter = loadCounter(id);
+//      Valida e aplica os deltas em memória, sem ir ao banco
+        long stateAfterAdjust = counter.apply(delta, reservedDelta);
+        if (stateAfterAdjust == StockCounter.REJECTED) {
+            throw new BeerStockExceededException(id, Math.abs(delta != 0 ? delta : reservedDelta));
+        }
+        return counter.toBeer(stateAfterAdjust);
+    }
+
+    @Override
+    public Beer evict(Beer deletedBeer) {
+//      A cerveja foi excluida, os deltas pendentes dela não precisam mais ser gravados, mas ja valiam para quem leu
+        StockCounter counter = counters.remove(deletedBeer.getId());
+        return counter != null ? counter.toBeer(counter.state.get()) : deletedBeer;
+    }
+
+//  Grava no banco, em uma unica transação, os deltas acumulados desde o ultimo lote
+    @Scheduled(fixedDelayString = "${beerstock.stock.ledger.flush-interval-ms:200}")
+    public void flush() {
+        List<String> flushedNames = writePendingDeltas();
+//      Avisa quem depende do que esta no banco (ex.: ETags das leituras)
+        if (!flushedNames.isEmpty()) {
+            eventPublisher.publishEvent(new StockFlushedEvent(flushedNames));
+        }
+    }
+
+//  Garante que nenhum delta fique so em memória quando a aplicação é encerrada
+    @PreDestroy
+    public void flushOnShutdown() {
+        writePendingDeltas();
+    }
+
+//  Retorna os nomes das cervejas gravadas, vazio se não havia deltas ou se o lote falhou
+    private synchronized List<String> writePendingDeltas() {
+        Map<Long, long[]> drainedDeltas = new HashMap<>();
+        counters.forEach((id, counter) -> {
+            long delta = counter.pendingDelta.getAndSet(0);
+            long reservedDelta = counter.pendingReservedDelta.getAndSet(0);
+            if (delta != 0 || reservedDelta != 0) {
+                drainedDeltas.put(id, new long[]{delta, reservedDelta});
+            }
+        });
+        if (drainedDeltas.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, long[]> rejectedDeltas = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> drainedDeltas.forEach((id, delta) -> {
+                if (!writeDelta(id, delta)) {
+                    rejectedDeltas.put(id, delta);
+                }
+            }));
+        } catch (RuntimeException e) {
+//          Lote não gravado: devolve os deltas para o proximo flush
+            log.error("Stock ledger flush failed, {} deltas kept for retry", drainedDeltas.size(), e);
+            restorePendingDeltas(drainedDeltas);
+            return List.of();
+        }
+//      Os deltas recusados ja foram confirmados para quem chamou: voltam para o proximo flush
+        restorePendingDeltas(rejectedDeltas);
+        List<String> flushedNames = new ArrayList<>(drainedDeltas.size());
+        drainedDeltas.keySet().forEach(id -> {
+            StockCounter counter = counters.get(id);
+            if (counter != null && !rejectedDeltas.containsKey(id)) {
+                flushedNames.add(counter.beer.getName());
+            }
+        });
+        return flushedNames;
+    }
+
+//  Retorna false se o banco recusou o delta de uma cerveja que ainda existe
+    private boolean writeDelta(Long id, long[] delta) {
+        if (beerRepository.adjustStock(id, (int) delta[0], (int) delta[1]) > 0) {
+            return true;
+        }
+        if (!beerRepository.existsById(id)) {
+//          Cerveja excluida: os deltas dela não tem mais onde ser gravados
+            log.warn("Stock ledger delta {}/{} dropped, beer {} no longer exists", delta[0], delta[1], id);
+            counters.remove(id);
+            return true;
+        }
+//      O banco divergiu do contador (ex.: alteração feita fora do ledger) e o delta sairia dos limites
+//      O delta não é descartado: é gravado assim que os proximos ajustes trouxerem o total de volta aos limites
+        log.error("Stock ledger delta {}/{} for beer {} rejected by the database, kept for retry", delta[0], delta[1], id);
+        return false;
+    }
+
+    private void restorePendingDeltas(Map<Long, long[]> deltas) {
+        deltas.forEach((id, delta) -> {
+            StockCounter counter = counters.get(id);
+            if (counter != null) {
+                counter.pendingDelta.addAndGet(delta[0]);
+                counter.pendingReservedDelta.addAndGet(delta[1]);
+            }
+        });
+    }
+
+    private StockCounter loadCounter(Long id) throws BeerNotFoundException {
+        StockCounter counter = counters.computeIfAbsent(id, beerId -> beerRepository.findById(beerId)
+                .map(StockCounter::new)
+                .orElse(null));
+        if (counter == null) {
+            throw new BeerNotFoundException(id);
+        }
+        return counter;
+    }
+
+//  Contador de uma cerveja: nivel atual em memória + deltas ainda não gravados no banco
+//  Quantidade e reservas ficam no mesmo long (32 bits cada), assim um unico CAS valida e altera os dois
+    private static final class StockCounter {
+
+        private static final long REJECTED = -1L;
+
+        private final Beer beer;
+        private final AtomicLong state;
+        private final AtomicLong pendingDelta = new AtomicLong();
+        private final AtomicLong pendingReservedDelta = new AtomicLong();
+
+        private StockCounter(Beer beer) {
+            this.beer = beer;
+            this.state = new AtomicLong(pack(beer.getQuantity(), beer.getReserved()));
+        }
+
+//      Retorna o estado depois dos deltas ou REJECTED se sair de 0 <= reserved <= quantity <= max
+        private long apply(int delta, int reservedDelta) {
+            while (true) {
+                long current = state.get();
+                int quantity = quantityOf(current) + delta;
+                int reserved = reservedOf(current) + reservedDelta;
+                if (reserved < 0 || reserved > quantity || quantity > beer.getMax()) {
+                    return REJECTED;
+                }
+                long updated = pack(quantity, reserved);
+                if (state.compareAndSet(current, updated)) {
+                    pendingDelta.addAndGet(delta);
+                    pendingReservedDelta.addAndGet(reservedDelta);
+                    return updated;
+                }
+            }
+        }
+
+        private Beer toBeer(long currentState) {
+            return new Beer(beer.getId(), beer.getName(), beer.getBrand(), beer.getMax(), quantityOf(currentState),
+                    reservedOf(currentState), beer.getType(), beer.getVersion());
+        }
+
+        private static long pack(int quantity, int reserved) {
+            return ((long) quantity << 32) | reserved;
+        }
+
+        private static int quantityOf(long state) {
+            return (int) (state >>> 32);
+        }
+
+        private static int reservedOf(long state) {
+            return (int) state;
+        }
+    }
+}
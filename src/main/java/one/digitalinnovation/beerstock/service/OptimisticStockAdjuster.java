@@ -0,0 +1,124 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockConflictException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Estrategia otimista: le a cerveja, valida os limites e grava com a versão lida
+// Se outra transação alterou a cerveja no meio tempo, tenta de novo depois de uma espera aleatoria,
+// até o limite de tentativas; sem disputa não existe nenhum bloqueio além do proprio UPDATE
+@Component
+@ConditionalOnProperty(name = "beerstock.stock.mode", havingValue = "optimistic")
+public class OptimisticStockAdjuster implements StockAdjuster {
+
+    private final BeerRepository beerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+
+    private final Counter retries;
+    private final Counter conflicts;
+    private final DistributionSummary attempts;
+
+    @Autowired
+    public OptimisticStockAdjuster(BeerRepository beerRepository, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                   @Value("${beerstock.stock.optimistic.max-attempts:5}") int maxAttempts,
+                                   @Value("${beerstock.stock.optimistic.backoff-ms:5}") long backoffMillis,
+                                   @Value("${beerstock.stock.optimistic.max-backoff-ms:100}") long maxBackoffMillis) {
+        this.beerRepository = beerRepository;
+//      Cada tentativa na propria transação: depois de um conflito a transação atual não pode mais ser usada
+//      (dentro de um lote, o ALL_OR_NOTHING desfaz por compensação, como no ledger)
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.retries = Counter.builder("beerstock.stock.optimistic.retries")
+                .description("Tentativas repetidas por conflito de versão")
+                .register(meterRegistry);
+        this.conflicts = Counter.builder("beerstock.stock.optimistic.conflicts")
+                .description("Ajustes que esgotaram as tentativas")
+                .register(meterRegistry);
+        this.attempts = DistributionSummary.builder("beerstock.stock.optimistic.attempts")
+                .description("Tentativas usadas por ajuste")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Beer adjust(Long id, int delta, int reservedDelta) throws BeerNotFoundException, BeerStockExceededException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Beer adjustedBeer = transactionTemplate.execute(status -> tryAdjust(id, delta, reservedDelta));
+                attempts.record(attempt);
+                return adjustedBeer;
+            } catch (AdjustmentRejectedException e) {
+                attempts.record(attempt);
+                if (e.getCause() instanceof BeerNotFoundException) {
+                    throw (BeerNotFoundException) e.getCause();
+                }
+                throw (BeerStockExceededException) e.getCause();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    attempts.record(attempt);
+                    conflicts.increment();
+                    throw new BeerStockConflictException(id, attempt);
+                }
+                retries.increment();
+                backoff(id, attempt);
+            }
+        }
+    }
+
+    private Beer tryAdjust(Long id, int delta, int reservedDelta) {
+        Beer beer = beerRepository.findById(id)
+                .orElseThrow(() -> new AdjustmentRejectedException(new BeerNotFoundException(id)));
+        int quantityAfterAdjustment = beer.getQuantity() + delta;
+        int reservedAfterAdjustment = beer.getReserved() + reservedDelta;
+        if (reservedAfterAdjustment < 0 || reservedAfterAdjustment > quantityAfterAdjustment || quantityAfterAdjustment > beer.getMax()) {
+            throw new AdjustmentRejectedException(new BeerStockExceededException(id, Math.abs(delta != 0 ? delta : reservedDelta)));
+        }
+        beer.setQuantity(quantityAfterAdjustment);
+        beer.setReserved(reservedAfterAdjustment);
+//      O flush executa o UPDATE ... WHERE version = ? aqui, e o conflito aparece nesta tentativa
+        return beerRepository.saveAndFlush(beer);
+    }
+
+//  Espera aleatoria entre 0 e backoff * 2^(tentativa - 1), limitada ao maximo (full jitter),
+//  para as transações em conflito não tentarem de novo todas ao mesmo tempo
+    private void backoff(Long id, int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeerStockConflictException(id, attempt);
+        }
+    }
+
+//  Leva as exceções checadas de dentro do TransactionTemplate (e faz o rollback da tentativa)
+    private static class AdjustmentRejectedException extends RuntimeException {
+
+        private AdjustmentRejectedException(Exception cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.ReservationDTO;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.ReservationNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+
+// Reservas de estoque (carrinho): as unidades ficam em Beer.reserved até a confirmação, liberação ou expiração
+// As reservas ativas ficam so em memória; a expiração é feita por uma DelayQueue,
+// sem varrer reservas nem tabela: a thread de expiração so acorda quando a proxima reserva vence
+@Slf4j
+@Service
+public class ReservationService {
+
+    private final BeerService beerService;
+    private final Duration timeToLive;
+    private final Map<String, StockReservation> reservations = new ConcurrentHashMap<>();
+    private final DelayQueue<StockReservation> expirations = new DelayQueue<>();
+    private Thread expirationThread;
+
+    @Autowired
+    public ReservationService(BeerService beerService, @Value("${beerstock.reservation.time-to-live:15m}") Duration timeToLive) {
+        this.beerService = beerService;
+        this.timeToLive = timeToLive;
+    }
+
+    @PostConstruct
+    public void start() {
+        expirationThread = new Thread(this::expireReservations, "stock-reservation-expiration");
+        expirationThread.setDaemon(true);
+        expirationThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        expirationThread.interrupt();
+    }
+
+//  Reserva
+//  O UPDATE condicional do ajuste de estoque ja valida a disponibilidade, sem consulta extra
+    public ReservationDTO reserve(Long beerId, int quantity) throws BeerNotFoundException, BeerStockExceededException {
+        beerService.reserve(beerId, quantity);
+        StockReservation reservation = new StockReservation(UUID.randomUUID().toString(), beerId, quantity,
+                Instant.now().plus(timeToLive), System.nanoTime() + timeToLive.toNanos());
+        reservations.put(reservation.getId(), reservation);
+        expirations.put(reservation);
+        return reservation.toDTO();
+    }
+
+//  Confirmação: as unidades reservadas saem do estoque
+    public BeerDTO confirm(String reservationId) throws ReservationNotFoundException, BeerNotFoundException, BeerStockExceededException {
+        StockReservation reservation = remove(reservationId);
+        try {
+            return beerService.confirmReservation(reservation.getBeerId(), reservation.getQuantity());
+        } catch (BeerStockExceededException | RuntimeException e) {
+            restore(reservation);
+            throw e;
+        }
+    }
+
+//  Cancelamento: as unidades voltam a ficar disponiveis
+    public void release(String reservationId) throws ReservationNotFoundException, BeerNotFoundException, BeerStockExceededException {
+        StockReservation reservation = remove(reservationId);
+        try {
+            beerService.release(reservation.getBeerId(), reservation.getQuantity());
+        } catch (BeerStockExceededException | RuntimeException e) {
+            restore(reservation);
+            throw e;
+        }
+    }
+
+//  Cerveja excluida: as reservas dela somem junto com a linha, não há o que liberar
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        if (event.isDeleted()) {
+            Long beerId = event.getBeer().getId();
+            reservations.values().removeIf(reservation -> reservation.getBeerId().equals(beerId));
+        }
+    }
+
+    public int activeReservations() {
+        return reservations.size();
+    }
+
+//  So quem tira a reserva do mapa a confirma, libera ou expira, assim as três nunca acontecem juntas
+//  Se o ajuste de estoque falhar, quem a tirou a devolve (restore)
+//  A entrada na DelayQueue não é removida aqui (seria O(n)), ela é descartada quando vencer
+    private StockReservation remove(String reservationId) throws ReservationNotFoundException, BeerNotFoundException, BeerStockExceededException {
+        StockReservation reservation = reservations.remove(reservationId);
+        if (reservation == null) {
+            throw new ReservationNotFoundException(reservationId);
+        }
+        if (reservation.isExpired()) {
+//          Venceu mas a thread de expiração ainda não passou por ela
+            try {
+                beerService.release(reservation.getBeerId(), reservation.getQuantity());
+            } catch (BeerStockExceededException | RuntimeException e) {
+                restore(reservation);
+                throw e;
+            }
+            throw new ReservationNotFoundException(reservationId);
+        }
+        return reservation;
+    }
+
+//  O ajuste de estoque falhou: a reserva volta ao mapa e as unidades continuam reservadas até uma nova tentativa ou a expiração
+//  Se ja venceu, a entrada dela na DelayQueue pode ter sido descartada enquanto estava fora do mapa, então entra de novo
+//  Com a cerveja excluida (BeerNotFoundException) a reserva não volta, ela sumiu junto com a linha
+    private void restore(StockReservation reservation) {
+        reservations.put(reservation.getId(), reservation);
+        if (reservation.isExpired()) {
+            expirations.put(reservation);
+        }
+    }
+
+    private void expireReservations() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                expire(expirations.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    void expire(StockReservation reservation) {
+        if (!reservations.remove(reservation.getId(), reservation)) {
+//          Ja confirmada, liberada ou removida junto com a cerveja
+            return;
+        }
+        try {
+            beerService.release(reservation.getBeerId(), reservation.getQuantity());
+        } catch (BeerNotFoundException | BeerStockExceededException | RuntimeException e) {
+            log.warn("Could not release expired reservation {} of beer {}", reservation.getId(), reservation.getBeerId(), e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+
+// Estrategia usada pelo BeerService para ajustar o estoque das cervejas
+// A implementação ativa é escolhida pela propriedade beerstock.stock.mode
+public interface StockAdjuster {
+
+//  Aplica o delta no estoque (positivo incrementa, negativo decrementa)
+//  Retorna a cerveja com o novo nivel de estoque, mantendo reserved <= quantity <= max
+//  (um decremento não pode consumir unidades reservadas)
+    default Beer adjust(Long id, int delta) throws BeerNotFoundException, BeerStockExceededException {
+        return adjust(id, delta, 0);
+    }
+
+//  Aplica juntos os deltas de estoque e de reserva, mantendo 0 <= reserved <= quantity <= max
+//  Reservar é (0, +n), liberar é (0, -n) e confirmar é (-n, -n)
+    Beer adjust(Long id, int delta, int reservedDelta) throws BeerNotFoundException, BeerStockExceededException;
+
+//  Avisa a estrategia que a cerveja foi excluida e retorna o estoque final dela
+//  (a lida do banco ou, no ledger, com os deltas que ainda não tinham sido gravados)
+    default Beer evict(Beer deletedBeer) {
+        return deletedBeer;
+    }
+}
@@ -0,0 +1,129 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.StockBatchDTO;
+import one.digitalinnovation.beerstock.dto.StockBatchResultDTO;
+import one.digitalinnovation.beerstock.dto.StockOperationDTO;
+import one.digitalinnovation.beerstock.dto.StockOperationResultDTO;
+import one.digitalinnovation.beerstock.enums.StockBatchMode;
+import one.digitalinnovation.beerstock.enums.StockOperationStatus;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockConflictException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// Aplica varios ajustes de estoque em uma unica requisição e transação
+@Slf4j
+@Service
+public class StockBatchService {
+
+    private final BeerService beerService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public StockBatchService(BeerService beerService, PlatformTransactionManager transactionManager) {
+        this.beerService = beerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+//  ALL_OR_NOTHING: na primeira falha desfaz o que foi aplicado e ignora o resto
+//  BEST_EFFORT: aplica o que for possivel e informa as falhas item a item
+    public StockBatchResultDTO adjustStock(StockBatchDTO stockBatchDTO) {
+        return transactionTemplate.execute(status -> applyBatch(stockBatchDTO, status));
+    }
+
+//  Os itens são aplicados em ordem de id (estavel para o mesmo id): no modo atomic cada UPDATE segura o lock
+//  da linha até o commit, e dois lotes com as mesmas cervejas em ordens diferentes entrariam em deadlock
+//  Os resultados voltam na ordem da requisição
+    private StockBatchResultDTO applyBatch(StockBatchDTO stockBatchDTO, TransactionStatus status) {
+        boolean allOrNothing = stockBatchDTO.getMode() == StockBatchMode.ALL_OR_NOTHING;
+        List<StockOperationDTO> operations = stockBatchDTO.getOperations();
+        StockOperationResultDTO[] results = new StockOperationResultDTO[operations.size()];
+        List<StockOperationResultDTO> appliedInOrder = new ArrayList<>(operations.size());
+        boolean failed = false;
+        for (int index : lockOrder(operations)) {
+            StockOperationDTO operation = operations.get(index);
+            if (failed) {
+                results[index] = toResult(operation, StockOperationStatus.SKIPPED, null, null);
+                continue;
+            }
+            StockOperationResultDTO result = applyOperation(operation);
+            results[index] = result;
+            appliedInOrder.add(result);
+            failed = allOrNothing && result.getStatus() != StockOperationStatus.APPLIED;
+        }
+        if (failed) {
+            rollback(appliedInOrder, status);
+        }
+        return new StockBatchResultDTO(stockBatchDTO.getMode(), !failed, Arrays.asList(results));
+    }
+
+    private static int[] lockOrder(List<StockOperationDTO> operations) {
+        return IntStream.range(0, operations.size())
+                .boxed()
+                .sorted(Comparator.comparing(index -> operations.get(index).getId()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private StockOperationResultDTO applyOperation(StockOperationDTO operation) {
+        try {
+            BeerDTO adjustedBeer = adjust(operation.getId(), operation.getDelta());
+            return toResult(operation, StockOperationStatus.APPLIED, adjustedBeer.getQuantity(), null);
+        } catch (BeerStockExceededException e) {
+            return toResult(operation, StockOperationStatus.REJECTED, null, e.getMessage());
+        } catch (BeerNotFoundException e) {
+            return toResult(operation, StockOperationStatus.NOT_FOUND, null, e.getMessage());
+        } catch (BeerStockConflictException e) {
+            return toResult(operation, StockOperationStatus.CONFLICT, null, e.getMessage());
+        }
+    }
+
+//  Desfaz, em ordem inversa à de aplicação, os ajustes ja aplicados e marca a transação para rollback
+//  A compensação mantem corretas as estrategias que guardam o estoque fora do banco (ledger)
+    private void rollback(List<StockOperationResultDTO> results, TransactionStatus status) {
+        for (int i = results.size() - 1; i >= 0; i--) {
+            StockOperationResultDTO result = results.get(i);
+            if (result.getStatus() != StockOperationStatus.APPLIED) {
+                continue;
+            }
+            result.setStatus(StockOperationStatus.ROLLED_BACK);
+            result.setQuantity(null);
+            try {
+                adjust(result.getId(), -result.getDelta());
+            } catch (BeerNotFoundException | BeerStockExceededException | BeerStockConflictException e) {
+                log.error("Could not compensate stock operation {} on beer {}", result.getDelta(), result.getId(), e);
+                result.setMessage(e.getMessage());
+            }
+        }
+        status.setRollbackOnly();
+    }
+
+    private BeerDTO adjust(Long id, int delta) throws BeerNotFoundException, BeerStockExceededException {
+        if (delta >= 0) {
+            return beerService.increment(id, delta);
+        }
+        return beerService.decrement(id, -delta);
+    }
+
+    private StockOperationResultDTO toResult(StockOperationDTO operation, StockOperationStatus status, Integer quantity, String message) {
+        return StockOperationResultDTO.builder()
+                .id(operation.getId())
+                .delta(operation.getDelta())
+                .status(status)
+                .quantity(quantity)
+                .message(message)
+                .build();
+    }
+}
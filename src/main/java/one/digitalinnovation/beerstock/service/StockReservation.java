@@ -0,0 +1,46 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.Getter;
+import one.digitalinnovation.beerstock.dto.ReservationDTO;
+
+import java.time.Instant;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+// Reserva em memória, ordenada na DelayQueue pelo prazo de expiração
+@Getter
+class StockReservation implements Delayed {
+
+    private final String id;
+    private final Long beerId;
+    private final int quantity;
+    private final Instant expiresAt;
+//  Prazo em nanoTime, que não muda com ajustes do relogio do sistema
+    private final long deadlineNanos;
+
+    StockReservation(String id, Long beerId, int quantity, Instant expiresAt, long deadlineNanos) {
+        this.id = id;
+        this.beerId = beerId;
+        this.quantity = quantity;
+        this.expiresAt = expiresAt;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    boolean isExpired() {
+        return getDelay(TimeUnit.NANOSECONDS) <= 0;
+    }
+
+    ReservationDTO toDTO() {
+        return new ReservationDTO(id, beerId, quantity, expiresAt);
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        return Long.compare(deadlineNanos, ((StockReservation) other).deadlineNanos);
+    }
+}
@@ -0,0 +1,112 @@
+package one.digitalinnovation.beerstock.snapshot;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.journal.ReplayedCatalog;
+import one.digitalinnovation.beerstock.journal.StockJournal;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerBulkLoader;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Restaura a tabela beer na subida: ultimo snapshot + registros do journal depois dele, em uma unica carga em massa
+// Roda como SmartLifecycle de fase baixa, antes do servidor web começar a aceitar requisições
+// O tempo de cada etapa vai para o log e para o timer beerstock.startup.restore (tag stage)
+@Slf4j
+@Component
+public class CatalogRestorer implements SmartLifecycle {
+
+    private final CatalogSnapshotService snapshotService;
+    private final StockJournal stockJournal;
+    private final BeerBulkLoader beerBulkLoader;
+    private final MeterRegistry meterRegistry;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+    private volatile boolean running;
+
+    @Autowired
+    public CatalogRestorer(ObjectProvider<CatalogSnapshotService> snapshotService,
+                           ObjectProvider<StockJournal> stockJournal,
+                           @Value("${beerstock.journal.replay-on-startup:false}") boolean replayJournal,
+                           BeerBulkLoader beerBulkLoader,
+                           MeterRegistry meterRegistry) {
+        this.snapshotService = snapshotService.getIfAvailable();
+        this.stockJournal = replayJournal ? stockJournal.getIfAvailable() : null;
+        this.beerBulkLoader = beerBulkLoader;
+        this.meterRegistry = meterRegistry;
+    }
+
+//  Retorna a quantidade de cervejas carregadas
+    public int restore() {
+        if (snapshotService == null && stockJournal == null) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        ReplayedCatalog catalog = snapshotService != null ? snapshotService.readLatest() : new ReplayedCatalog();
+        long snapshotRead = System.nanoTime();
+        long snapshotSequence = catalog.getLastSequence();
+        int snapshotBeers = catalog.getBeers().size();
+        if (stockJournal != null) {
+            try {
+                stockJournal.read(snapshotSequence, catalog::apply);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        long journalReplayed = System.nanoTime();
+        beerBulkLoader.replaceAll(catalog.getBeers().stream()
+                .map(beerMapper::toModel)
+                .collect(Collectors.toList()), catalog.getHighestId());
+        long loaded = System.nanoTime();
+
+        record("snapshot", snapshotRead - start);
+        record("journal", journalReplayed - snapshotRead);
+        record("load", loaded - journalReplayed);
+        log.info("Catalog restored in {} ms: {} beers from snapshot ({} ms), journal {} to {} ({} ms), {} beers loaded ({} ms)",
+                millis(loaded - start), snapshotBeers, millis(snapshotRead - start), snapshotSequence, catalog.getLastSequence(),
+                millis(journalReplayed - snapshotRead), catalog.getBeers().size(), millis(loaded - journalReplayed));
+        return catalog.getBeers().size();
+    }
+
+    @Override
+    public void start() {
+        restore();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+//  Antes do servidor web (WebServerStartStopLifecycle usa Integer.MAX_VALUE - 1)
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void record(String stage, long nanos) {
+        Timer.builder("beerstock.startup.restore")
+                .description("Tempo de cada etapa da restauração do catalogo na subida")
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,97 @@
+package one.digitalinnovation.beerstock.snapshot;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.journal.ReplayedCatalog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// Formato binario do snapshot do catalogo
+// [magic int][versão int][ultima sequencia do journal long][criado em long][quantidade int][cervejas...]
+// [quantidade de excluidas int][ids long...][crc32 long], cada cerveja como id, nome, marca, max, quantidade e tipo
+final class CatalogSnapshot {
+
+    private static final int MAGIC = 0x42534E50;
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final BeerType[] BEER_TYPES = BeerType.values();
+
+    private CatalogSnapshot() {
+    }
+
+//  Grava em um arquivo temporario e troca pelo definitivo, assim uma queda no meio nunca deixa um snapshot pela metade
+    static void write(Path path, ReplayedCatalog catalog) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (DataOutputStream output = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE), crc))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeLong(catalog.getLastSequence());
+                output.writeLong(System.currentTimeMillis());
+                output.writeInt(catalog.getBeers().size());
+                for (BeerDTO beer : catalog.getBeers()) {
+                    output.writeLong(beer.getId());
+                    output.writeUTF(beer.getName());
+                    output.writeUTF(beer.getBrand());
+                    output.writeInt(beer.getMax());
+                    output.writeInt(beer.getQuantity());
+                    output.writeByte(beer.getType().ordinal());
+                }
+                output.writeInt(catalog.getDeletedIds().size());
+                for (Long deletedId : catalog.getDeletedIds()) {
+                    output.writeLong(deletedId);
+                }
+//              O crc vai no fim e não entra na propria conta
+                output.writeLong(crc.getValue());
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+//  Lança IOException se o arquivo não for um snapshot valido (formato, versão ou crc)
+    static ReplayedCatalog read(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream input = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE), crc))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Not a catalog snapshot: " + path);
+            }
+            long lastSequence = input.readLong();
+            input.readLong();
+            int beerCount = input.readInt();
+            List<BeerDTO> beers = new ArrayList<>(beerCount);
+            for (int i = 0; i < beerCount; i++) {
+                beers.add(new BeerDTO(input.readLong(), input.readUTF(), input.readUTF(), input.readInt(), input.readInt(),
+                        BEER_TYPES[input.readByte()]));
+            }
+            int deletedCount = input.readInt();
+            List<Long> deletedIds = new ArrayList<>(deletedCount);
+            for (int i = 0; i < deletedCount; i++) {
+                deletedIds.add(input.readLong());
+            }
+            long expectedCrc = crc.getValue();
+            if (input.readLong() != expectedCrc) {
+                throw new IOException("Corrupted catalog snapshot: " + path);
+            }
+            return new ReplayedCatalog(lastSequence, beers, deletedIds);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package one.digitalinnovation.beerstock.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.journal.ReplayedCatalog;
+import one.digitalinnovation.beerstock.journal.StockJournal;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+// Grava periodicamente o catalogo inteiro em um arquivo binario compacto, restaurado na subida (CatalogRestorer)
+// Com o journal ligado, o snapshot é um checkpoint dele: o anterior mais os registros seguintes, sem consultar o banco,
+// e guarda a ultima sequencia incluida para a restauração aplicar so o restante do journal
+// Sem journal, é uma copia da tabela beer lida em uma transação somente leitura
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "beerstock.snapshot.enabled", havingValue = "true")
+public class CatalogSnapshotService {
+
+    private final Path path;
+    private final StockJournal stockJournal;
+    private final BeerRepository beerRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public CatalogSnapshotService(@Value("${beerstock.snapshot.path:data/catalog.snapshot}") String path,
+                                  ObjectProvider<StockJournal> stockJournal,
+                                  BeerRepository beerRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.path = Paths.get(path);
+        this.stockJournal = stockJournal.getIfAvailable();
+        this.beerRepository = beerRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+//  Ultimo snapshot gravado, ou um catalogo vazio se não existir ou estiver corrompido
+    public ReplayedCatalog readLatest() {
+        if (!Files.exists(path)) {
+            return new ReplayedCatalog();
+        }
+        try {
+            return CatalogSnapshot.read(path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable catalog snapshot {}", path, e);
+            return new ReplayedCatalog();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${beerstock.snapshot.interval-ms:60000}", fixedDelayString = "${beerstock.snapshot.interval-ms:60000}")
+    public synchronized void snapshot() throws IOException {
+        long start = System.nanoTime();
+        ReplayedCatalog catalog;
+        if (stockJournal != null) {
+            catalog = readLatest();
+            long snapshotSequence = catalog.getLastSequence();
+            stockJournal.read(snapshotSequence, catalog::apply);
+//          Nada novo no journal desde o ultimo snapshot
+            if (catalog.getLastSequence() == snapshotSequence && Files.exists(path)) {
+                return;
+            }
+        } else {
+            catalog = readOnlyTransaction.execute(status ->
+                    new ReplayedCatalog(0, beerRepository.findAllProjected(), Collections.emptyList()));
+        }
+        CatalogSnapshot.write(path, catalog);
+        log.info("Catalog snapshot written up to journal sequence {}: {} beers in {} ms",
+                catalog.getLastSequence(), catalog.getBeers().size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+//  Ultimo snapshot antes de encerrar, para a proxima subida ter pouco (ou nada) do journal para aplicar
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write catalog snapshot on shutdown", e);
+        }
+    }
+}
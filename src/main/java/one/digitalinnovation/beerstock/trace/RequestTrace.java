@@ -0,0 +1,62 @@
+package one.digitalinnovation.beerstock.trace;
+
+// Tempos por etapa de uma requisição, usado somente pela thread da requisição
+// As etapas podem ser aninhadas (SERVICE chama REPOSITORY e MAPPER); cada etapa guarda apenas o proprio tempo,
+// sem o das etapas internas, assim a soma das etapas é o tempo total da requisição
+public class RequestTrace {
+
+    private static final int MAX_DEPTH = 32;
+
+    private final long startNanos = System.nanoTime();
+    private final long[] stageNanos = new long[Stage.values().length];
+
+//  Pilha das etapas abertas: inicio e tempo gasto nas etapas internas
+    private final long[] openedAt = new long[MAX_DEPTH];
+    private final long[] childNanos = new long[MAX_DEPTH];
+    private int depth;
+
+    private long totalNanos;
+
+    public void open() {
+        if (depth < MAX_DEPTH) {
+            openedAt[depth] = System.nanoTime();
+            childNanos[depth] = 0;
+        }
+        depth++;
+    }
+
+    public void close(Stage stage) {
+        if (depth == 0) {
+            return;
+        }
+        depth--;
+        if (depth >= MAX_DEPTH) {
+            return;
+        }
+        long elapsed = System.nanoTime() - openedAt[depth];
+        stageNanos[stage.ordinal()] += elapsed - childNanos[depth];
+        if (depth > 0) {
+            childNanos[depth - 1] += elapsed;
+        }
+    }
+
+//  Fecha a requisição: o que sobrou do tempo total vai para OTHER
+    void finish() {
+        totalNanos = System.nanoTime() - startNanos;
+        long attributed = 0;
+        for (Stage stage : Stage.values()) {
+            if (stage != Stage.OTHER) {
+                attributed += stageNanos[stage.ordinal()];
+            }
+        }
+        stageNanos[Stage.OTHER.ordinal()] = Math.max(0, totalNanos - attributed);
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getStageNanos(Stage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+}
@@ -0,0 +1,35 @@
+package one.digitalinnovation.beerstock.trace;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+// Mede o tempo gasto nos services e no BeerRepository durante uma requisição amostrada
+@Aspect
+@Component
+public class RequestTraceAspect {
+
+    @Around("execution(public * one.digitalinnovation.beerstock.service.*Service.*(..))")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, Stage.SERVICE);
+    }
+
+    @Around("execution(* one.digitalinnovation.beerstock.repository.BeerRepository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, Stage.REPOSITORY);
+    }
+
+    private Object trace(ProceedingJoinPoint joinPoint, Stage stage) throws Throwable {
+        RequestTrace trace = RequestTraces.current();
+        if (trace == null) {
+            return joinPoint.proceed();
+        }
+        trace.open();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            trace.close(stage);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package one.digitalinnovation.beerstock.trace;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Agrega os tempos por etapa de cada endpoint e guarda as ultimas requisições medidas
+@Component
+public class RequestTraceCollector {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+//  Fração das requisições medidas (0 = desligado, 1 = todas); pode ser alterada pelo endpoint do actuator
+    private volatile double sampleRate;
+    private final int slowestSize;
+
+    private final Map<String, EndpointStages> endpoints = new ConcurrentHashMap<>();
+//  Buffer circular com as ultimas requisições medidas
+    private final RequestTraceSnapshot[] recent;
+    private final AtomicLong recentIndex = new AtomicLong();
+
+    @Autowired
+    public RequestTraceCollector(@Value("${beerstock.trace.sample-rate:0}") double sampleRate,
+                                 @Value("${beerstock.trace.recent-size:1000}") int recentSize,
+                                 @Value("${beerstock.trace.slowest-size:10}") int slowestSize) {
+        this.sampleRate = sampleRate;
+        this.slowestSize = slowestSize;
+        this.recent = new RequestTraceSnapshot[recentSize];
+    }
+
+    public boolean shouldSample() {
+        double rate = sampleRate;
+        return rate > 0 && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    public void record(String endpoint, RequestTrace trace) {
+        endpoints.computeIfAbsent(endpoint, key -> new EndpointStages()).add(trace);
+
+        Map<Stage, Double> stagesMillis = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            stagesMillis.put(stage, trace.getStageNanos(stage) / NANOS_PER_MILLI);
+        }
+        RequestTraceSnapshot snapshot = new RequestTraceSnapshot(endpoint, Instant.now(), trace.getTotalNanos() / NANOS_PER_MILLI, stagesMillis);
+        recent[(int) (recentIndex.getAndIncrement() % recent.length)] = snapshot;
+    }
+
+//  Tempo medio por etapa de cada endpoint, em ms, e a fração do total que cada etapa representa
+    public Map<String, Object> breakdown() {
+        Map<String, Object> breakdown = new TreeMap<>();
+        endpoints.forEach((endpoint, stages) -> breakdown.put(endpoint, stages.toMap()));
+        return breakdown;
+    }
+
+//  As mais lentas dentre as ultimas requisições medidas
+    public List<RequestTraceSnapshot> slowest() {
+        return Arrays.stream(recent)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingDouble(RequestTraceSnapshot::getTotalMillis).reversed())
+                .limit(slowestSize)
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        endpoints.clear();
+        Arrays.fill(recent, null);
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+    }
+
+    private static class EndpointStages {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder[] stageNanos = new LongAdder[Stage.values().length];
+
+        private EndpointStages() {
+            for (int i = 0; i < stageNanos.length; i++) {
+                stageNanos[i] = new LongAdder();
+            }
+        }
+
+        private void add(RequestTrace trace) {
+            count.increment();
+            totalNanos.add(trace.getTotalNanos());
+            maxNanos.accumulateAndGet(trace.getTotalNanos(), Math::max);
+            for (Stage stage : Stage.values()) {
+                stageNanos[stage.ordinal()].add(trace.getStageNanos(stage));
+            }
+        }
+
+        private Map<String, Object> toMap() {
+            long requests = Math.max(1, count.sum());
+            long total = Math.max(1, totalNanos.sum());
+            Map<String, Object> stages = new LinkedHashMap<>();
+            for (Stage stage : Stage.values()) {
+                long nanos = stageNanos[stage.ordinal()].sum();
+                Map<String, Object> stageBreakdown = new LinkedHashMap<>();
+                stageBreakdown.put("averageMillis", nanos / NANOS_PER_MILLI / requests);
+                stageBreakdown.put("share", (double) nanos / total);
+                stages.put(stage.name(), stageBreakdown);
+            }
+            Map<String, Object> endpoint = new LinkedHashMap<>();
+            endpoint.put("count", count.sum());
+            endpoint.put("averageMillis", totalNanos.sum() / NANOS_PER_MILLI / requests);
+            endpoint.put("maxMillis", maxNanos.get() / NANOS_PER_MILLI);
+            endpoint.put("stages", stages);
+            return endpoint;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package one.digitalinnovation.beerstock.trace;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// /actuator/requeststages
+// GET: tempo medio por etapa de cada endpoint e as requisições mais lentas entre as ultimas medidas
+// POST {"sampleRate": 0.1}: liga, altera ou desliga (0) a amostragem sem reiniciar a aplicação
+// DELETE: limpa o que foi medido
+@Component
+@Endpoint(id = "requeststages")
+public class RequestTraceEndpoint {
+
+    private final RequestTraceCollector collector;
+
+    @Autowired
+    public RequestTraceEndpoint(RequestTraceCollector collector) {
+        this.collector = collector;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stages() {
+        Map<String, Object> stages = new LinkedHashMap<>();
+        stages.put("sampleRate", collector.getSampleRate());
+        stages.put("endpoints", collector.breakdown());
+        stages.put("slowest", collector.slowest());
+        return stages;
+    }
+
+    @WriteOperation
+    public void sampleRate(double sampleRate) {
+        collector.setSampleRate(sampleRate);
+    }
+
+    @DeleteOperation
+    public void reset() {
+        collector.reset();
+    }
+}
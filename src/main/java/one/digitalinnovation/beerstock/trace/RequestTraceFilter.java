@@ -0,0 +1,48 @@
+package one.digitalinnovation.beerstock.trace;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// Decide se a requisição é medida e, se for, abre o RequestTrace da thread e entrega o resultado ao coletor
+@Component
+public class RequestTraceFilter extends OncePerRequestFilter {
+
+    private final RequestTraceCollector collector;
+
+    @Autowired
+    public RequestTraceFilter(RequestTraceCollector collector) {
+        this.collector = collector;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!collector.shouldSample()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RequestTrace trace = new RequestTrace();
+        RequestTraces.begin(trace);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestTraces.end();
+            trace.finish();
+            collector.record(endpoint(request), trace);
+        }
+    }
+
+//  Agrupa pelo padrão da rota (/api/v1/beers/{id}/increment), e não pela URL com o id
+    private String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED");
+    }
+}
@@ -0,0 +1,18 @@
+package one.digitalinnovation.beerstock.trace;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Map;
+
+// Copia imutavel de uma requisição medida, usada na lista das mais lentas
+@Getter
+@AllArgsConstructor
+public class RequestTraceSnapshot {
+
+    private final String endpoint;
+    private final Instant timestamp;
+    private final double totalMillis;
+    private final Map<Stage, Double> stagesMillis;
+}
@@ -0,0 +1,39 @@
+package one.digitalinnovation.beerstock.trace;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+// Validator do Spring MVC que mede o tempo do Bean Validation (@Valid nos DTOs)
+public class RequestTraceValidator implements SmartValidator {
+
+    private final SmartValidator delegate;
+
+    public RequestTraceValidator(SmartValidator delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return delegate.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        RequestTraces.open();
+        try {
+            delegate.validate(target, errors);
+        } finally {
+            RequestTraces.close(Stage.VALIDATION);
+        }
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        RequestTraces.open();
+        try {
+            delegate.validate(target, errors, validationHints);
+        } finally {
+            RequestTraces.close(Stage.VALIDATION);
+        }
+    }
+}
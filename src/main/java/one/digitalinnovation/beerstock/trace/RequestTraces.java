@@ -0,0 +1,37 @@
+package one.digitalinnovation.beerstock.trace;
+
+// Acesso ao RequestTrace da requisição atual
+// Sem amostragem não existe trace na thread, e cada ponto de medição custa apenas um ThreadLocal.get()
+public final class RequestTraces {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private RequestTraces() {
+    }
+
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    static void begin(RequestTrace trace) {
+        CURRENT.set(trace);
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    public static void open() {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.open();
+        }
+    }
+
+    public static void close(Stage stage) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.close(stage);
+        }
+    }
+}
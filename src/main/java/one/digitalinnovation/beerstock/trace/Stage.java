@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.trace;
+
+// Etapas medidas em cada requisição amostrada
+// OTHER é o tempo não atribuido a nenhuma etapa (filtros, serialização da resposta, dispatcher...)
+public enum Stage {
+    DESERIALIZATION,
+    VALIDATION,
+    SERVICE,
+    REPOSITORY,
+    MAPPER,
+    OTHER
+}
@@ -0,0 +1,316 @@
+package one.digitalinnovation.beerstock.view;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchResultDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Busca por nome e marca para o typeahead, sem ir ao banco
+// Prefixo: dicionario de termos ordenado, o prefixo vira um intervalo (mesma consulta de um trie)
+// Aproximada: trigramas de nome e marca, tolera erros de digitação quando os prefixos não bastam
+// So criação e exclusão mudam o indice (nome e marca não mudam nos ajustes de estoque)
+@Component
+public class BeerSearchView implements CatalogView {
+
+//  Quantas cervejas no maximo são avaliadas por busca de prefixo, para prefixos curtos não percorrerem o catalogo
+    private static final int MAX_PREFIX_CANDIDATES = 500;
+//  Similaridade minima (Jaccard dos trigramas) para uma busca aproximada entrar no resultado
+    private static final double MIN_SIMILARITY = 0.3;
+
+    private static final double EXACT_MATCH_SCORE = 4;
+    private static final double NAME_PREFIX_SCORE = 3;
+    private static final double NAME_WORD_PREFIX_SCORE = 2;
+    private static final double BRAND_PREFIX_SCORE = 1.5;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Comparator<BeerSearchResultDTO> BY_RELEVANCE = Comparator
+            .comparingDouble(BeerSearchResultDTO::getScore).reversed()
+            .thenComparingInt(result -> result.getName().length())
+            .thenComparing(BeerSearchResultDTO::getName);
+
+    private final ConcurrentMap<Long, Document> documents = new ConcurrentHashMap<>();
+//  Nome inteiro, palavras do nome e marca (inteira e palavras), cada um com o peso dele na busca de prefixo
+    private final ConcurrentNavigableMap<String, Postings> nameTerms = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<String, Postings> nameWordTerms = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<String, Postings> brandTerms = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, Postings> nameTrigrams = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Postings> brandTrigrams = new ConcurrentHashMap<>();
+
+//  Escritas são raras (criação e exclusão) e sincronizadas entre si; as buscas leem sem lock
+    @Override
+    public synchronized void rebuild(Collection<BeerDTO> beers) {
+        documents.clear();
+        nameTerms.clear();
+        nameWordTerms.clear();
+        brandTerms.clear();
+        nameTrigrams.clear();
+        brandTrigrams.clear();
+//      Em ordem de id, cada id entra no fim das listas, sem copias
+        beers.stream()
+                .sorted(Comparator.comparing(BeerDTO::getId))
+                .forEach(this::index);
+    }
+
+    @Override
+    public synchronized void apply(BeerChangedEvent event) {
+        if (event.isDeleted()) {
+            Document document = documents.remove(event.getPrevious().getId());
+            if (document != null) {
+                unindex(document);
+            }
+        } else if (event.getPrevious() == null) {
+            index(event.getCurrent());
+        }
+    }
+
+    public List<BeerSearchResultDTO> search(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        collectPrefixMatches(nameTerms, normalizedQuery, NAME_PREFIX_SCORE, scores);
+        collectPrefixMatches(nameWordTerms, normalizedQuery, NAME_WORD_PREFIX_SCORE, scores);
+        collectPrefixMatches(brandTerms, normalizedQuery, BRAND_PREFIX_SCORE, scores);
+//      So faz a busca aproximada quando os prefixos não preenchem o resultado
+        if (scores.size() < limit) {
+            Set<String> queryTrigrams = trigrams(normalizedQuery);
+            collectSimilarMatches(nameTrigrams, queryTrigrams, true, scores);
+            collectSimilarMatches(brandTrigrams, queryTrigrams, false, scores);
+        }
+        return scores.entrySet()
+                .stream()
+                .map(score -> toResult(score.getKey(), score.getValue()))
+                .filter(Objects::nonNull)
+                .sorted(BY_RELEVANCE)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static void collectPrefixMatches(ConcurrentNavigableMap<String, Postings> terms, String prefix, double prefixScore, Map<Long, Double> scores) {
+//      Intervalo [prefix, prefix + Character.MAX_VALUE): todos os termos que começam com o prefixo, em ordem
+        for (Map.Entry<String, Postings> term : terms.subMap(prefix, prefix + Character.MAX_VALUE).entrySet()) {
+            double score = term.getKey().equals(prefix) ? EXACT_MATCH_SCORE : prefixScore;
+            Postings.Slice ids = term.getValue().slice;
+            for (int i = 0; i < ids.size && scores.size() < MAX_PREFIX_CANDIDATES; i++) {
+                scores.merge(ids.ids[i], score, Math::max);
+            }
+            if (scores.size() >= MAX_PREFIX_CANDIDATES) {
+                return;
+            }
+        }
+    }
+
+    private void collectSimilarMatches(ConcurrentMap<String, Postings> trigramIndex, Set<String> queryTrigrams, boolean name, Map<Long, Double> scores) {
+        List<Postings> postings = queryTrigrams.stream()
+                .map(trigramIndex::get)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingInt(Postings::size))
+                .collect(Collectors.toList());
+        int requiredHits = (int) Math.ceil(MIN_SIMILARITY * queryTrigrams.size());
+//      Quem não aparece em nenhuma das menores listas não chega no minimo de trigramas em comum,
+//      então so essas listas geram candidatos e as maiores so são consultadas para os candidatos
+        int candidateLists = postings.size() - requiredHits + 1;
+        if (candidateLists <= 0) {
+            return;
+        }
+        Map<Long, Integer> hits = new HashMap<>();
+        for (Postings trigramPostings : postings.subList(0, candidateLists)) {
+            Postings.Slice ids = trigramPostings.slice;
+            for (int i = 0; i < ids.size; i++) {
+                hits.merge(ids.ids[i], 1, Integer::sum);
+            }
+        }
+        for (Postings trigramPostings : postings.subList(candidateLists, postings.size())) {
+            hits.replaceAll((id, count) -> trigramPostings.contains(id) ? count + 1 : count);
+        }
+        hits.forEach((id, count) -> {
+            Document document = documents.get(id);
+            if (count >= requiredHits && document != null) {
+                int documentTrigrams = name ? document.nameTrigrams : document.brandTrigrams;
+//              Jaccard: trigramas em comum / trigramas distintos dos dois textos
+                double similarity = (double) count / (queryTrigrams.size() + documentTrigrams - count);
+                if (similarity >= MIN_SIMILARITY) {
+                    scores.merge(id, similarity, Math::max);
+                }
+            }
+        });
+    }
+
+    private BeerSearchResultDTO toResult(Long id, double score) {
+        Document document = documents.get(id);
+        return document != null
+                ? new BeerSearchResultDTO(id, document.name, document.brand, document.type, score)
+                : null;
+    }
+
+    private void index(BeerDTO beer) {
+        Document document = new Document(beer);
+        Document previous = documents.put(document.id, document);
+        if (previous != null) {
+            unindex(previous);
+        }
+        add(nameTerms, document.normalizedName, document.id);
+        words(document.normalizedName).forEach(word -> add(nameWordTerms, word, document.id));
+        add(brandTerms, document.normalizedBrand, document.id);
+        words(document.normalizedBrand).forEach(word -> add(brandTerms, word, document.id));
+        trigrams(document.normalizedName).forEach(trigram -> add(nameTrigrams, trigram, document.id));
+        trigrams(document.normalizedBrand).forEach(trigram -> add(brandTrigrams, trigram, document.id));
+    }
+
+    private void unindex(Document document) {
+        remove(nameTerms, document.normalizedName, document.id);
+        words(document.normalizedName).forEach(word -> remove(nameWordTerms, word, document.id));
+        remove(brandTerms, document.normalizedBrand, document.id);
+        words(document.normalizedBrand).forEach(word -> remove(brandTerms, word, document.id));
+        trigrams(document.normalizedName).forEach(trigram -> remove(nameTrigrams, trigram, document.id));
+        trigrams(document.normalizedBrand).forEach(trigram -> remove(brandTrigrams, trigram, document.id));
+    }
+
+    private static void add(ConcurrentMap<String, Postings> index, String key, long id) {
+        index.computeIfAbsent(key, k -> new Postings()).add(id);
+    }
+
+    private static void remove(ConcurrentMap<String, Postings> index, String key, long id) {
+        Postings postings = index.get(key);
+        if (postings != null && postings.remove(id)) {
+            index.remove(key);
+        }
+    }
+
+//  Minusculas e sem acentos, assim "Brahma", "brahma" e "BRÁHMA" são o mesmo termo
+    static String normalize(String text) {
+        String withoutDiacritics = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(withoutDiacritics.toLowerCase().trim()).replaceAll(" ");
+    }
+
+//  Palavras a partir da segunda; a primeira ja é o prefixo do termo inteiro
+    private static Set<String> words(String text) {
+        String[] words = WORD_SEPARATORS.split(text);
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 1; i < words.length; i++) {
+            if (!words[i].isEmpty()) {
+                result.add(words[i]);
+            }
+        }
+        return result;
+    }
+
+//  Trigramas com um espaço antes e depois, para o começo e o fim da palavra pesarem na similaridade
+    static Set<String> trigrams(String text) {
+        String padded = " " + text + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+//  Lista de ids em ordem crescente, com ids primitivos (100k cervejas * dezenas de trigramas)
+//  Os leitores pegam array e tamanho publicados juntos em um Slice imutavel, sem lock; o escritor é unico
+    private static final class Postings {
+
+        private volatile Slice slice = new Slice(new long[4], 0);
+
+//      Id novo da sequence vai para o espaço livre do fim do array, que nenhum leitor enxerga ainda
+        private void add(long id) {
+            Slice current = slice;
+            long[] ids = current.ids;
+            int size = current.size;
+            if (size > 0 && ids[size - 1] >= id) {
+                int position = Arrays.binarySearch(ids, 0, size, id);
+                if (position < 0) {
+                    int insertion = -position - 1;
+                    long[] copy = new long[Math.max(ids.length, size + 1)];
+                    System.arraycopy(ids, 0, copy, 0, insertion);
+                    copy[insertion] = id;
+                    System.arraycopy(ids, insertion, copy, insertion + 1, size - insertion);
+                    slice = new Slice(copy, size + 1);
+                }
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            slice = new Slice(ids, size + 1);
+        }
+
+//      Remoção copia o array, assim quem ja esta lendo o antigo não é afetado; retorna true se a lista ficou vazia
+        private boolean remove(long id) {
+            Slice current = slice;
+            int position = Arrays.binarySearch(current.ids, 0, current.size, id);
+            if (position >= 0) {
+                long[] copy = new long[current.ids.length];
+                System.arraycopy(current.ids, 0, copy, 0, position);
+                System.arraycopy(current.ids, position + 1, copy, position, current.size - position - 1);
+                slice = new Slice(copy, current.size - 1);
+            }
+            return slice.size == 0;
+        }
+
+        private boolean contains(long id) {
+            Slice current = slice;
+            return Arrays.binarySearch(current.ids, 0, current.size, id) >= 0;
+        }
+
+        private int size() {
+            return slice.size;
+        }
+
+        private static final class Slice {
+
+            private final long[] ids;
+            private final int size;
+
+            private Slice(long[] ids, int size) {
+                this.ids = ids;
+                this.size = size;
+            }
+        }
+    }
+
+    private static final class Document {
+
+        private final Long id;
+        private final String name;
+        private final String brand;
+        private final BeerType type;
+        private final String normalizedName;
+        private final String normalizedBrand;
+        private final int nameTrigrams;
+        private final int brandTrigrams;
+
+        private Document(BeerDTO beer) {
+            this.id = beer.getId();
+            this.name = beer.getName();
+            this.brand = beer.getBrand();
+            this.type = beer.getType();
+            this.normalizedName = normalize(beer.getName());
+            this.normalizedBrand = normalize(beer.getBrand());
+            this.nameTrigrams = trigrams(normalizedName).size();
+            this.brandTrigrams = trigrams(normalizedBrand).size();
+        }
+    }
+}
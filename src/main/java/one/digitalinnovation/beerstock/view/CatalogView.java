@@ -0,0 +1,17 @@
+package one.digitalinnovation.beerstock.view;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+
+import java.util.Collection;
+
+// Estrutura em memória derivada do catalogo (agregados, indices...), mantida pelos eventos do BeerService
+// Reconstruida por CatalogViews na subida, depois da restauração da tabela e antes do servidor web
+public interface CatalogView {
+
+//  Descarta o estado atual e recalcula a partir do catalogo completo
+    void rebuild(Collection<BeerDTO> beers);
+
+//  Aplica uma alteração ja confirmada no banco
+    void apply(BeerChangedEvent event);
+}
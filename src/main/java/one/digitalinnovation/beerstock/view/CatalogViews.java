@@ -0,0 +1,69 @@
+package one.digitalinnovation.beerstock.view;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Mantem todas as CatalogView: reconstroi na subida e repassa cada alteração de cerveja
+@Slf4j
+@Component
+public class CatalogViews implements SmartLifecycle {
+
+    private final List<CatalogView> views;
+    private final BeerRepository beerRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private volatile boolean running;
+
+    @Autowired
+    public CatalogViews(List<CatalogView> views, BeerRepository beerRepository, PlatformTransactionManager transactionManager) {
+        this.views = views;
+        this.beerRepository = beerRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+//  Uma unica leitura do catalogo para todas as views
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<BeerDTO> beers = readOnlyTransaction.execute(status -> beerRepository.findAllProjected());
+        views.forEach(view -> view.rebuild(beers));
+        log.info("{} catalog views rebuilt from {} beers in {} ms", views.size(), beers.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+//  Depois do commit, como o cache de nomes; sem transação ativa é executado na hora
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        views.forEach(view -> view.apply(event));
+    }
+
+    @Override
+    public void start() {
+        rebuild();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+//  Depois do CatalogRestorer (fase 0) e antes do servidor web
+    @Override
+    public int getPhase() {
+        return 1;
+    }
+}
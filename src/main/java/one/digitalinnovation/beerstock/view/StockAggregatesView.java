@@ -0,0 +1,106 @@
+package one.digitalinnovation.beerstock.view;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.StockAggregateDTO;
+import one.digitalinnovation.beerstock.dto.StockAggregatesDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Totais de estoque por tipo e por marca, atualizados a cada alteração sem varrer o catalogo
+// Cada grupo é um valor imutavel trocado com compute (atomico por chave), assim unidades, SKUs e capacidade
+// de um grupo sempre são lidos juntos; uma alteração de estoque é aplicada ao grupo como um unico delta,
+// e como os deltas são somas, a ordem dos eventos de commits concorrentes não importa
+@Component
+public class StockAggregatesView implements CatalogView {
+
+    private static final String TOTAL = "";
+
+    private final ConcurrentMap<BeerType, Totals> byType = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Totals> byBrand = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Totals> total = new ConcurrentHashMap<>();
+
+    @Override
+    public void rebuild(Collection<BeerDTO> beers) {
+        byType.clear();
+        byBrand.clear();
+        total.clear();
+        beers.forEach(beer -> apply(BeerChangedEvent.created(beer)));
+    }
+
+    @Override
+    public void apply(BeerChangedEvent event) {
+        BeerDTO previous = event.getPrevious();
+        BeerDTO current = event.getCurrent();
+        Totals removed = previous != null ? Totals.of(previous, -1) : Totals.EMPTY;
+        Totals added = current != null ? Totals.of(current, 1) : Totals.EMPTY;
+        add(byType, previous != null ? previous.getType() : null, removed, current != null ? current.getType() : null, added);
+        add(byBrand, previous != null ? previous.getBrand() : null, removed, current != null ? current.getBrand() : null, added);
+        add(total, previous != null ? TOTAL : null, removed, current != null ? TOTAL : null, added);
+    }
+
+    public StockAggregatesDTO getAggregates() {
+        Map<BeerType, StockAggregateDTO> types = new EnumMap<>(BeerType.class);
+        byType.forEach((type, totals) -> types.put(type, totals.toDTO()));
+        Map<String, StockAggregateDTO> brands = new TreeMap<>();
+        byBrand.forEach((brand, totals) -> brands.put(brand, totals.toDTO()));
+        return new StockAggregatesDTO(total.getOrDefault(TOTAL, Totals.EMPTY).toDTO(), types, brands);
+    }
+
+//  Tira o estado anterior do grupo dele e soma o atual no grupo dele; no mesmo grupo, um unico compute com o delta
+    private static <K> void add(ConcurrentMap<K, Totals> groups, K previousKey, Totals removed, K currentKey, Totals added) {
+        if (previousKey != null && previousKey.equals(currentKey)) {
+            Totals delta = removed.plus(added);
+            groups.compute(currentKey, (key, totals) -> Totals.apply(totals, delta));
+            return;
+        }
+        if (previousKey != null) {
+            groups.compute(previousKey, (key, totals) -> Totals.apply(totals, removed));
+        }
+        if (currentKey != null) {
+            groups.compute(currentKey, (key, totals) -> Totals.apply(totals, added));
+        }
+    }
+
+    private static final class Totals {
+
+        private static final Totals EMPTY = new Totals(0, 0, 0);
+
+        private final int skuCount;
+        private final long units;
+        private final long capacity;
+
+        private Totals(int skuCount, long units, long capacity) {
+            this.skuCount = skuCount;
+            this.units = units;
+            this.capacity = capacity;
+        }
+
+//      sign = 1 soma a cerveja ao grupo, sign = -1 tira
+        private static Totals of(BeerDTO beer, int sign) {
+            return new Totals(sign, sign * (long) beer.getQuantity(), sign * (long) beer.getMax());
+        }
+
+        private Totals plus(Totals other) {
+            return new Totals(skuCount + other.skuCount, units + other.units, capacity + other.capacity);
+        }
+
+//      Grupo que fica sem SKUs é removido (null no compute)
+        private static Totals apply(Totals totals, Totals delta) {
+            Totals updated = (totals != null ? totals : EMPTY).plus(delta);
+            return updated.skuCount == 0 ? null : updated;
+        }
+
+        private StockAggregateDTO toDTO() {
+            double fillRatio = capacity > 0 ? (double) units / capacity : 0;
+            return new StockAggregateDTO(skuCount, units, capacity, fillRatio);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package one.digitalinnovation.beerstock.view;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.ToIntFunction;
+
+// Indice das cervejas ordenado pela quantidade e pela folga ate o maximo (max - quantity)
+// As consultas leem so o começo do conjunto ordenado, O(log n + limit), sem varrer o catalogo
+// A quantidade é mantida pelos deltas dos eventos, assim eventos de commits concorrentes podem chegar em qualquer ordem
+@Component
+public class StockLevelView implements CatalogView {
+
+    private static final Comparator<Entry> BY_QUANTITY = Comparator.comparingInt((Entry entry) -> entry.quantity)
+            .thenComparingLong(entry -> entry.id);
+    private static final Comparator<Entry> BY_HEADROOM = Comparator.comparingInt(Entry::headroom)
+            .thenComparingLong(entry -> entry.id);
+
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Index all = new Index();
+    private final Map<BeerType, Index> byType = new EnumMap<>(BeerType.class);
+
+    public StockLevelView() {
+        for (BeerType type : BeerType.values()) {
+            byType.put(type, new Index());
+        }
+    }
+
+    @Override
+    public void rebuild(Collection<BeerDTO> beers) {
+        entries.clear();
+        all.clear();
+        byType.values().forEach(Index::clear);
+        beers.forEach(beer -> apply(BeerChangedEvent.created(beer)));
+    }
+
+    @Override
+    public void apply(BeerChangedEvent event) {
+        if (event.isDeleted()) {
+            entries.computeIfPresent(event.getPrevious().getId(), (id, entry) -> {
+                unindex(entry);
+                return null;
+            });
+            return;
+        }
+        BeerDTO current = event.getCurrent();
+        if (event.getPrevious() == null) {
+            entries.compute(current.getId(), (id, entry) -> replace(entry, new Entry(current, current.getQuantity())));
+            return;
+        }
+//      Soma o delta ao que ja esta no indice; cerveja ja excluida não volta
+        int delta = current.getQuantity() - event.getPrevious().getQuantity();
+        entries.computeIfPresent(current.getId(), (id, entry) -> replace(entry, new Entry(current, entry.quantity + delta)));
+    }
+
+//  Cervejas com menos estoque primeiro
+    public List<BeerDTO> findLowStock(BeerType type, Integer threshold, int limit) {
+        return first(indexOf(type).byQuantity, entry -> entry.quantity, threshold, limit);
+    }
+
+//  Cervejas mais perto do maximo primeiro
+    public List<BeerDTO> findNearCapacity(BeerType type, Integer threshold, int limit) {
+        return first(indexOf(type).byHeadroom, Entry::headroom, threshold, limit);
+    }
+
+    private Index indexOf(BeerType type) {
+        return type != null ? byType.get(type) : all;
+    }
+
+//  O conjunto ja esta ordenado pelo valor do filtro, então para no primeiro que passar do limite
+    private static List<BeerDTO> first(NavigableSet<Entry> entries, ToIntFunction<Entry> value, Integer threshold, int limit) {
+        List<BeerDTO> beers = new ArrayList<>(limit);
+        for (Entry entry : entries) {
+            if (beers.size() == limit || (threshold != null && value.applyAsInt(entry) > threshold)) {
+                break;
+            }
+            beers.add(entry.toDTO());
+        }
+        return Collections.unmodifiableList(beers);
+    }
+
+    private Entry replace(Entry previous, Entry current) {
+        if (previous != null) {
+            unindex(previous);
+        }
+        all.add(current);
+        byType.get(current.type).add(current);
+        return current;
+    }
+
+    private void unindex(Entry entry) {
+        all.remove(entry);
+        byType.get(entry.type).remove(entry);
+    }
+
+    private static final class Index {
+
+        private final NavigableSet<Entry> byQuantity = new ConcurrentSkipListSet<>(BY_QUANTITY);
+        private final NavigableSet<Entry> byHeadroom = new ConcurrentSkipListSet<>(BY_HEADROOM);
+
+        private void add(Entry entry) {
+            byQuantity.add(entry);
+            byHeadroom.add(entry);
+        }
+
+        private void remove(Entry entry) {
+            byQuantity.remove(entry);
+            byHeadroom.remove(entry);
+        }
+
+        private void clear() {
+            byQuantity.clear();
+            byHeadroom.clear();
+        }
+    }
+
+//  Imutavel: a posição nos conjuntos depende da quantidade, então cada alteração cria uma nova entrada
+    private static final class Entry {
+
+        private final long id;
+        private final String name;
+        private final String brand;
+        private final int max;
+        private final int quantity;
+        private final BeerType type;
+
+        private Entry(BeerDTO beer, int quantity) {
+            this.id = beer.getId();
+            this.name = beer.getName();
+            this.brand = beer.getBrand();
+            this.max = beer.getMax();
+            this.quantity = quantity;
+            this.type = beer.getType();
+        }
+
+        private int headroom() {
+            return max - quantity;
+        }
+
+        private BeerDTO toDTO() {
+            return new BeerDTO(id, name, brand, max, quantity, type);
+        }
+    }
+}
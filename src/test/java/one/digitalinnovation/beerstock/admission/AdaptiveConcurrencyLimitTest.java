@@ -0,0 +1,81 @@
+package one.digitalinnovation.beerstock.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+//  Com a latencia estavel e demanda no limite, o limite cresce; quando a latencia sobe, ele cai
+    void whenLatencyRisesThenLimitDecreases() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, 0);
+        for (int i = 0; i < 50; i++) {
+            saturateAndRelease(limit, FAST_NANOS);
+        }
+        double grownLimit = limit.getLimit();
+        assertThat(grownLimit, greaterThan(10.0));
+
+        for (int i = 0; i < 50; i++) {
+            saturateAndRelease(limit, SLOW_NANOS);
+        }
+        assertThat(limit.getLimit(), lessThan(grownLimit / 2));
+    }
+
+    @Test
+//  Sem vaga, a fila é limitada por tamanho e por tempo de espera
+    void whenLimitIsReachedThenRequestsQueueUntilFullOrTimedOut() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 1, 0);
+        assertThat(limit.acquire(0, TimeUnit.MILLISECONDS), equalTo(AdaptiveConcurrencyLimit.Admission.ADMITTED));
+        assertThat(limit.getInFlight(), equalTo(1));
+        assertThat(limit.acquire(10, TimeUnit.MILLISECONDS), equalTo(AdaptiveConcurrencyLimit.Admission.QUEUE_FULL));
+
+        AdaptiveConcurrencyLimit queuedLimit = new AdaptiveConcurrencyLimit(1, 1, 1, 1);
+        queuedLimit.acquire(0, TimeUnit.MILLISECONDS);
+        assertThat(queuedLimit.acquire(10, TimeUnit.MILLISECONDS), equalTo(AdaptiveConcurrencyLimit.Admission.TIMED_OUT));
+
+        queuedLimit.release(FAST_NANOS, true);
+        assertThat(queuedLimit.getQueued(), equalTo(0));
+        assertThat(queuedLimit.acquire(0, TimeUnit.MILLISECONDS), equalTo(AdaptiveConcurrencyLimit.Admission.ADMITTED));
+    }
+
+    @Test
+//  Quem esta na fila entra assim que uma vaga é liberada
+    void whenSlotIsReleasedThenQueuedRequestIsAdmitted() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 1, 1);
+        limit.acquire(0, TimeUnit.MILLISECONDS);
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            limit.release(FAST_NANOS, true);
+        });
+        releaser.start();
+
+        assertThat(limit.acquire(5, TimeUnit.SECONDS), equalTo(AdaptiveConcurrencyLimit.Admission.ADMITTED));
+        releaser.join();
+        assertThat(limit.getInFlight(), equalTo(1));
+    }
+
+//  Ocupa todas as vagas e libera cada uma com a latencia informada
+    private static void saturateAndRelease(AdaptiveConcurrencyLimit limit, long rttNanos) {
+        int admitted = 0;
+        while (limit.acquire(0, TimeUnit.MILLISECONDS) == AdaptiveConcurrencyLimit.Admission.ADMITTED) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limit.release(rttNanos, true);
+        }
+    }
+}
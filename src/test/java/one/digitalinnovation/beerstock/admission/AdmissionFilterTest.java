@@ -0,0 +1,127 @@
+package one.digitalinnovation.beerstock.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class AdmissionFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AdmissionFilter admissionFilter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+//      Uma vaga por grupo e sem fila, para a segunda requisição simultanea ser recusada
+        admissionFilter = new AdmissionFilter(meterRegistry, true, 1, 1, 1,
+                0, Duration.ZERO, 0, Duration.ZERO, 0, Duration.ZERO, Duration.ofSeconds(2));
+    }
+
+    @Test
+//  Com o ajuste de estoque ocupando a vaga, outro ajuste recebe 503; a leitura tem vaga propria e o actuator não é limitado
+    void whenStockLimitIsReachedThenRequestsAreRejectedWithRetryAfter() throws Exception {
+        MockHttpServletResponse concurrentStock = new MockHttpServletResponse();
+        MockHttpServletResponse concurrentRead = new MockHttpServletResponse();
+        MockHttpServletResponse concurrentHealth = new MockHttpServletResponse();
+        MockHttpServletResponse stock = perform("PATCH", "/api/v1/beers/1/decrement", (request, response) -> {
+            perform("PATCH", "/api/v1/beers/2/increment", concurrentStock);
+            perform("GET", "/api/v1/beers", concurrentRead);
+            perform("GET", "/actuator/health", concurrentHealth);
+        });
+
+        assertThat(stock.getStatus(), equalTo(HttpStatus.OK.value()));
+        assertThat(concurrentStock.getStatus(), equalTo(HttpStatus.SERVICE_UNAVAILABLE.value()));
+        assertThat(concurrentStock.getHeader(HttpHeaders.RETRY_AFTER), equalTo("2"));
+        assertThat(concurrentRead.getStatus(), equalTo(HttpStatus.OK.value()));
+        assertThat(concurrentHealth.getStatus(), equalTo(HttpStatus.OK.value()));
+        assertThat(rejected("stock", "queue_full"), equalTo(1.0));
+        assertThat(rejected("read", "priority"), equalTo(0.0));
+    }
+
+    @Test
+//  Com todas as vagas de estoque ocupadas a leitura ainda passa; ela so é recusada enquanto há ajuste de estoque na fila
+    void whenStockRequestsAreQueuedThenReadsAreRejected() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        admissionFilter = new AdmissionFilter(meterRegistry, true, 2, 2, 2,
+                1, Duration.ofSeconds(5), 0, Duration.ZERO, 0, Duration.ZERO, Duration.ofSeconds(2));
+        MockHttpServletResponse readWhileStockIsBusy = new MockHttpServletResponse();
+        MockHttpServletResponse readWhileStockIsQueued = new MockHttpServletResponse();
+        AtomicReference<Future<MockHttpServletResponse>> queuedStock = new AtomicReference<>();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            perform("PATCH", "/api/v1/beers/1/decrement", (firstRequest, firstResponse) ->
+                    perform("PATCH", "/api/v1/beers/2/decrement", (secondRequest, secondResponse) -> {
+                        perform("GET", "/api/v1/beers", readWhileStockIsBusy);
+                        queuedStock.set(executor.submit(() -> perform("PATCH", "/api/v1/beers/3/decrement", (request, response) -> {
+                        })));
+                        awaitQueued("stock", 1);
+                        perform("GET", "/api/v1/beers", readWhileStockIsQueued);
+                    }));
+
+//          Com as vagas liberadas, o ajuste da fila entra
+            assertThat(queuedStock.get().get(5, TimeUnit.SECONDS).getStatus(), equalTo(HttpStatus.OK.value()));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(readWhileStockIsBusy.getStatus(), equalTo(HttpStatus.OK.value()));
+        assertThat(readWhileStockIsQueued.getStatus(), equalTo(HttpStatus.SERVICE_UNAVAILABLE.value()));
+        assertThat(rejected("read", "priority"), equalTo(1.0));
+    }
+
+    @Test
+//  Depois que a requisição termina, a vaga volta para o grupo
+    void whenRequestFinishesThenSlotIsReleased() throws Exception {
+        MockHttpServletResponse concurrentWrite = new MockHttpServletResponse();
+        perform("POST", "/api/v1/beers", (request, response) -> perform("POST", "/api/v1/beers", concurrentWrite));
+        MockHttpServletResponse write = perform("POST", "/api/v1/beers", (request, response) -> {
+        });
+
+        assertThat(concurrentWrite.getStatus(), equalTo(HttpStatus.SERVICE_UNAVAILABLE.value()));
+        assertThat(write.getStatus(), equalTo(HttpStatus.OK.value()));
+        assertThat(meterRegistry.get("beerstock.admission.in.flight").tag("group", "write").gauge().value(), equalTo(0.0));
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, FilterChain filterChain) throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        admissionFilter.doFilter(new MockHttpServletRequest(method, uri), response, filterChain);
+        return response;
+    }
+
+    private void perform(String method, String uri, MockHttpServletResponse response) throws IOException, ServletException {
+        admissionFilter.doFilter(new MockHttpServletRequest(method, uri), response, (request, chainResponse) -> {
+        });
+    }
+
+    private void awaitQueued(String group, int expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("beerstock.admission.queued").tag("group", group).gauge().value() < expected) {
+            assertThat("requisições na fila", System.nanoTime(), lessThan(deadline));
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private double rejected(String group, String reason) {
+        return meterRegistry.get("beerstock.admission.rejected").tag("group", group).tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,83 @@
+package one.digitalinnovation.beerstock.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BeerNameCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BeerNameCache beerNameCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        beerNameCache = new BeerNameCache(100, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    @Test
+//  Quando uma cerveja é criada, o nome passa a ser encontrado no cache sem chamar o loader
+    void whenBeerIsCreatedThenCacheReturnsItWithoutLoading() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+//      Ausencia em cache antes da criação
+        beerNameCache.get(beerDTO.getName(), name -> Optional.empty());
+
+        beerNameCache.onBeerChanged(BeerChangedEvent.created(beerDTO));
+
+        Optional<BeerDTO> cachedBeerDTO = beerNameCache.get(beerDTO.getName(), name -> {
+            throw new AssertionError("loader não deveria ser chamado");
+        });
+        assertThat(cachedBeerDTO.get(), is(equalTo(beerDTO)));
+    }
+
+    @Test
+//  Quando uma cerveja é excluida, o nome fica em cache como ausente
+    void whenBeerIsDeletedThenCacheReturnsEmpty() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        beerNameCache.get(beerDTO.getName(), name -> Optional.of(beerDTO));
+
+        beerNameCache.onBeerChanged(BeerChangedEvent.deleted(beerDTO));
+
+        assertFalse(beerNameCache.get(beerDTO.getName(), name -> Optional.of(beerDTO)).isPresent());
+    }
+
+    @Test
+//  Alteração de estoque guarda o estado do evento, sem voltar ao banco (no modo ledger ele ainda não tem o ajuste)
+    void whenStockChangesThenCacheReturnsCurrentStateWithoutLoading() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO incrementedBeerDTO = BeerDTOBuilder.builder().quantity(20).build().toBeerDTO();
+        beerNameCache.get(beerDTO.getName(), name -> Optional.of(beerDTO));
+
+        beerNameCache.onBeerChanged(BeerChangedEvent.updated(beerDTO, incrementedBeerDTO));
+
+        Optional<BeerDTO> cachedBeerDTO = beerNameCache.get(beerDTO.getName(), name -> Optional.of(beerDTO));
+        assertThat(cachedBeerDTO.get().getQuantity(), is(equalTo(20)));
+    }
+
+    @Test
+//  Acertos e falhas do cache são publicados como metricas
+    void whenCacheIsReadThenHitsAndMissesAreRecorded() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        beerNameCache.get(beerDTO.getName(), name -> Optional.of(beerDTO));
+        beerNameCache.get(beerDTO.getName(), name -> Optional.of(beerDTO));
+
+        double hits = meterRegistry.get("cache.gets").tag("cache", BeerNameCache.CACHE_NAME).tag("result", "hit").functionCounter().count();
+        double misses = meterRegistry.get("cache.gets").tag("cache", BeerNameCache.CACHE_NAME).tag("result", "miss").functionCounter().count();
+        assertThat(hits, equalTo(1.0));
+        assertThat(misses, equalTo(1.0));
+        assertTrue(beerNameCache.get(beerDTO.getName(), name -> Optional.empty()).isPresent());
+    }
+}
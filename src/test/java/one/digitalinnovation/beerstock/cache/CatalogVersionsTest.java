@@ -0,0 +1,48 @@
+package one.digitalinnovation.beerstock.cache;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CatalogVersionsTest {
+
+    private final CatalogVersions catalogVersions = new CatalogVersions();
+
+    @Test
+//  Exclusão muda a ETag do nome sem guardar o nome excluido
+    void whenBeerIsDeletedThenETagChangesAndNameIsNotKept() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        catalogVersions.onBeerChanged(BeerChangedEvent.created(beerDTO));
+        String createdETag = catalogVersions.getBeerETag(beerDTO.getName());
+
+        catalogVersions.onBeerChanged(BeerChangedEvent.deleted(beerDTO));
+
+        assertThat(catalogVersions.getBeerETag(beerDTO.getName()), not(equalTo(createdETag)));
+        assertThat(catalogVersions.trackedNames(), equalTo(0));
+    }
+
+    @Test
+//  Criações e exclusões repetidas nunca repetem uma ETag ja entregue para o mesmo nome
+    void whenNameIsRecreatedThenETagsAreNeverReused() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Set<String> eTags = new HashSet<>();
+        eTags.add(catalogVersions.getBeerETag(beerDTO.getName()));
+
+        for (int i = 0; i < 3; i++) {
+            catalogVersions.onBeerChanged(BeerChangedEvent.created(beerDTO));
+            assertTrue(eTags.add(catalogVersions.getBeerETag(beerDTO.getName())));
+            catalogVersions.onBeerChanged(BeerChangedEvent.deleted(beerDTO));
+            assertTrue(eTags.add(catalogVersions.getBeerETag(beerDTO.getName())));
+        }
+        assertThat(catalogVersions.trackedNames(), equalTo(0));
+    }
+}
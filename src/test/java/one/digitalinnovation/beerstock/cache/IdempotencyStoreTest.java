@@ -0,0 +1,177 @@
+package one.digitalinnovation.beerstock.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.IdempotencyKeyReusedException;
+import one.digitalinnovation.beerstock.exception.IdempotencyRequestInProgressException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IdempotencyStoreTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        idempotencyStore = new IdempotencyStore(DataSize.ofMegabytes(1), Duration.ofMinutes(1), Duration.ofSeconds(5),
+                new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+//  A repetição recebe o resultado guardado sem executar de novo, e outra requisição com a mesma chave é recusada
+    void whenKeyIsRepeatedThenStoredResultIsReturned() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        AtomicInteger executions = new AtomicInteger();
+
+        IdempotencyStore.Result<BeerDTO> first = idempotencyStore.execute("key", "increment:1:10", () -> {
+            executions.incrementAndGet();
+            return beerDTO;
+        });
+        IdempotencyStore.Result<BeerDTO> retry = idempotencyStore.execute("key", "increment:1:10", () -> {
+            throw new AssertionError("operação não deveria ser executada de novo");
+        });
+
+        assertFalse(first.isReplayed());
+        assertTrue(retry.isReplayed());
+        assertThat(retry.getValue(), is(equalTo(beerDTO)));
+        assertThat(executions.get(), is(1));
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyStore.execute("key", "decrement:1:10", () -> beerDTO));
+        assertThat(meterRegistry.get("beerstock.idempotency.requests").tag("result", "replayed").counter().count(), is(1.0));
+    }
+
+    @Test
+//  Falha não fica guardada: a nova tentativa com a mesma chave executa a operação
+    void whenOperationFailsThenKeyCanBeRetried() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        assertThrows(BeerStockExceededException.class, () -> idempotencyStore.execute("key", "increment:1:100", () -> {
+            throw new BeerStockExceededException(1L, 100);
+        }));
+        IdempotencyStore.Result<BeerDTO> retry = idempotencyStore.execute("key", "increment:1:100", () -> beerDTO);
+
+        assertFalse(retry.isReplayed());
+        assertThat(retry.getValue(), is(equalTo(beerDTO)));
+    }
+
+    @Test
+//  Repetições concorrentes esperam a primeira execução em vez de executar junto com ela
+    void whenRequestsWithSameKeyAreConcurrentThenOperationRunsOnce() throws Exception {
+        int threads = 8;
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<IdempotencyStore.Result<BeerDTO>>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return idempotencyStore.execute("key", "increment:1:10", () -> {
+                    executions.incrementAndGet();
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+                    return beerDTO;
+                });
+            }));
+        }
+        start.countDown();
+        int replayed = 0;
+        for (Future<IdempotencyStore.Result<BeerDTO>> future : futures) {
+            IdempotencyStore.Result<BeerDTO> result = future.get();
+            assertThat(result.getValue(), is(equalTo(beerDTO)));
+            replayed += result.isReplayed() ? 1 : 0;
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertThat(executions.get(), is(1));
+        assertThat(replayed, is(threads - 1));
+    }
+
+    @Test
+//  O resultado entra no peso da entrada, não so a chave e a impressão digital
+    void whenResultIsStoredThenItsSizeCountsInTheEntryWeight() throws Exception {
+        String largeResult = "x".repeat(10_000);
+
+        idempotencyStore.execute("key", "export", () -> largeResult);
+
+        assertThat(idempotencyStore.weightOf("key"), greaterThan(largeResult.length()));
+    }
+
+    @Test
+//  Se a original não termina em wait-timeout, a repetição desiste sem executar a operação
+    void whenOriginalIsStillRunningThenRetryGivesUpAfterWaitTimeout() throws Exception {
+        IdempotencyStore shortWaitStore = new IdempotencyStore(DataSize.ofMegabytes(1), Duration.ofMinutes(1), Duration.ofMillis(50),
+                new ObjectMapper(), meterRegistry);
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<IdempotencyStore.Result<BeerDTO>> original = executor.submit(() -> shortWaitStore.execute("key", "increment:1:10", () -> {
+                started.countDown();
+                release.join();
+                return beerDTO;
+            }));
+            started.await(5, TimeUnit.SECONDS);
+
+            assertThrows(IdempotencyRequestInProgressException.class, () -> shortWaitStore.execute("key", "increment:1:10", () -> {
+                throw new AssertionError("operação não deveria ser executada de novo");
+            }));
+            release.complete(null);
+            assertThat(original.get(5, TimeUnit.SECONDS).getValue(), is(equalTo(beerDTO)));
+        } finally {
+            release.complete(null);
+            executor.shutdownNow();
+        }
+        assertThat(meterRegistry.get("beerstock.idempotency.requests").tag("result", "timed-out").counter().count(), is(1.0));
+    }
+
+    @Test
+//  A impressão digital vem do conteudo do corpo, não da ordem dos campos
+    void whenBodiesHaveSameContentThenFingerprintsAreEqual() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", 1);
+        body.put("delta", 5);
+        Map<String, Object> reorderedBody = new LinkedHashMap<>();
+        reorderedBody.put("delta", 5);
+        reorderedBody.put("id", 1);
+        Map<String, Object> otherBody = new LinkedHashMap<>(body);
+        otherBody.put("delta", 6);
+
+        assertThat(idempotencyStore.fingerprint("stock", reorderedBody), is(equalTo(idempotencyStore.fingerprint("stock", body))));
+        assertThat(idempotencyStore.fingerprint("stock", otherBody), is(not(equalTo(idempotencyStore.fingerprint("stock", body)))));
+        assertThat(idempotencyStore.fingerprint("increment:1", body), is(not(equalTo(idempotencyStore.fingerprint("decrement:1", body)))));
+    }
+}
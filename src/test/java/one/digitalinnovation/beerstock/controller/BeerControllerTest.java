@@ -1,34 +1,83 @@
 package one.digitalinnovation.beerstock.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.cache.CatalogVersions;
+import one.digitalinnovation.beerstock.cache.IdempotencyStore;
+import one.digitalinnovation.beerstock.dto.BeerBulkDTO;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageRequestDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchResultDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.dto.ReservationDTO;
+import one.digitalinnovation.beerstock.dto.ReservationRequestDTO;
+import one.digitalinnovation.beerstock.dto.StockAggregateDTO;
+import one.digitalinnovation.beerstock.dto.StockAggregatesDTO;
+import one.digitalinnovation.beerstock.dto.StockBatchDTO;
+import one.digitalinnovation.beerstock.dto.StockBatchResultDTO;
+import one.digitalinnovation.beerstock.dto.StockOperationDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.StockBatchMode;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.ReservationNotFoundException;
+import one.digitalinnovation.beerstock.service.BeerExportService;
 import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.ReservationService;
+import one.digitalinnovation.beerstock.service.StockBatchService;
+import one.digitalinnovation.beerstock.view.BeerSearchView;
+import one.digitalinnovation.beerstock.view.StockAggregatesView;
+import one.digitalinnovation.beerstock.view.StockLevelView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static one.digitalinnovation.beerstock.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.startsWith;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.mock.http.server.reactive.MockServerHttpRequest.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 // Para rodar essa classe eu quero utilizar uma extensão do Mockito
@@ -45,6 +94,25 @@ public class BeerControllerTest {
     private static final String BEER_API_SUBPATH_INCREMENT_URL = "/increment";
 //  Caminho do decremento de cerveja
     private static final String BEER_API_SUBPATH_DECREMENT_URL = "/decrement";
+//  Caminho da listagem paginada
+    private static final String BEER_API_SUBPATH_PAGE_URL = "/page";
+//  Caminho da exportação do catalogo
+    private static final String BEER_API_SUBPATH_EXPORT_URL = "/export";
+//  Caminho da criação em lote
+    private static final String BEER_API_SUBPATH_BULK_URL = "/bulk";
+//  Caminho do ajuste de estoque em lote
+    private static final String BEER_API_SUBPATH_STOCK_URL = "/stock";
+//  Caminho das reservas
+    private static final String BEER_API_SUBPATH_RESERVATIONS_URL = "/reservations";
+//  Caminho dos totais de estoque
+    private static final String BEER_API_SUBPATH_AGGREGATES_URL = "/aggregates";
+//  Caminhos das consultas de nivel de estoque
+    private static final String BEER_API_SUBPATH_LOW_STOCK_URL = "/low-stock";
+    private static final String BEER_API_SUBPATH_NEAR_CAPACITY_URL = "/near-capacity";
+//  Caminho da busca
+    private static final String BEER_API_SUBPATH_SEARCH_URL = "/search";
+//  Reserva Invalida
+    private static final String INVALID_RESERVATION_ID = "invalid";
 
     private MockMvc mockMvc;
 
@@ -52,6 +120,33 @@ public class BeerControllerTest {
     @Mock
     private BeerService beerService;
 
+    @Mock
+    private StockBatchService stockBatchService;
+
+    @Mock
+    private BeerExportService beerExportService;
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Mock
+    private StockAggregatesView stockAggregatesView;
+
+    @Mock
+    private StockLevelView stockLevelView;
+
+    @Mock
+    private BeerSearchView beerSearchView;
+
+//  Versões reais, para as ETags mudarem com os eventos
+    @Spy
+    private CatalogVersions catalogVersions = new CatalogVersions();
+
+//  Store real, para as repetições com a mesma Idempotency-Key serem respondidas por ele
+    @Spy
+    private IdempotencyStore idempotencyStore = new IdempotencyStore(DataSize.ofMegabytes(1), Duration.ofMinutes(1), Duration.ofSeconds(5),
+            new ObjectMapper(), new SimpleMeterRegistry());
+
     @InjectMocks
     private BeerController beerController;
 
@@ -111,6 +206,51 @@ public class BeerControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+//  Nome igual a uma rota fixa (GET /search) não é aceito, senão a cerveja não poderia ser buscada pelo nome
+    void whenPOSTIsCalledWithReservedNameThenAnErrorIsReturned() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        beerDTO.setName(BEER_API_SUBPATH_SEARCH_URL.substring(1));
+
+        mockMvc.perform(post(BEER_API_URL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(beerDTO)))
+                .andExpect(status().isBadRequest());
+        verify(beerService, never()).createBeer(any(BeerDTO.class));
+    }
+
+    @Test
+//  Quando chamar o POST em lote, as cervejas são criadas
+    void whenPOSTBulkIsCalledThenBeersAreCreated() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerBulkDTO beerBulkDTO = new BeerBulkDTO(Collections.singletonList(beerDTO));
+
+        // when
+        when(beerService.createBeers(beerBulkDTO.getBeers())).thenReturn(beerBulkDTO.getBeers());
+
+        // then
+        mockMvc.perform(post(BEER_API_URL_PATH + BEER_API_SUBPATH_BULK_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(beerBulkDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].name", is(beerDTO.getName())));
+    }
+
+    @Test
+//  Quando uma cerveja do lote não tem campo obrigatorio, retornar erro
+    void whenPOSTBulkIsCalledWithoutRequiredFieldThenAnErrorIsReturned() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        beerDTO.setBrand(null);
+
+        // then
+        mockMvc.perform(post(BEER_API_URL_PATH + BEER_API_SUBPATH_BULK_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(new BeerBulkDTO(Collections.singletonList(beerDTO)))))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
 //  Quando chamamos o GET com nome valido, retornar status OK
     void whenGETIsCalledWithValidNameThenOkStatusIsReturned() throws Exception {
@@ -195,6 +335,61 @@ public class BeerControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+//  Quando a listagem paginada é chamada com filtros, retornar status OK
+    void whenGETPageIsCalledWithFiltersThenOkStatusIsReturned() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerPageRequestDTO pageRequestDTO = BeerPageRequestDTO.builder().after(0L).size(10).type(BeerType.LAGER).build();
+
+        //when
+        when(beerService.listPage(pageRequestDTO)).thenReturn(new BeerPageDTO(Collections.singletonList(beerDTO), beerDTO.getId()));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + BEER_API_SUBPATH_PAGE_URL)
+                .param("after", "0")
+                .param("size", "10")
+                .param("type", BeerType.LAGER.name())
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name", is(beerDTO.getName())))
+                .andExpect(jsonPath("$.nextCursor", is(beerDTO.getId().intValue())));
+    }
+
+    @Test
+//  Quando o tamanho da pagina passa do limite, retornar Bad Request
+    void whenGETPageIsCalledWithSizeGreatherThanMaxThenBadRequestStatusIsReturned() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + BEER_API_SUBPATH_PAGE_URL)
+                .param("size", "101")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+//  Quando a exportação é chamada, o catalogo é escrito em NDJSON
+    void whenGETExportIsCalledThenNdjsonIsStreamed() throws Exception {
+        // given
+        String exportedLine = asJsonString(BeerDTOBuilder.builder().build().toBeerDTO()) + "\n";
+
+        //when
+//      Simula a escrita do catalogo na resposta
+        when(beerExportService.exportAll(any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.getArgument(0, OutputStream.class).write(exportedLine.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        // then
+//      A resposta é escrita de forma assincrona
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + BEER_API_SUBPATH_EXPORT_URL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BeerController.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(exportedLine));
+    }
+
     @Test
 //  Quando o DELETE é chamado com Id Valido, retorna status no Content
     void whenDELETEIsCalledWithValidIdThenNoContentStatusIsReturned() throws Exception {
@@ -287,6 +482,39 @@ public class BeerControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+//  A repetição com a mesma Idempotency-Key recebe a cerveja guardada, sem incrementar de novo
+    void whenPATCHIsRetriedWithSameIdempotencyKeyThenIncrementIsAppliedOnce() throws Exception {
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(10)
+                .build();
+
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        beerDTO.setQuantity(beerDTO.getQuantity() + quantityDTO.getQuantity());
+
+        when(beerService.increment(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(beerDTO);
+
+        for (String replayed : Arrays.asList("false", "true")) {
+            mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+                    .header(BeerController.IDEMPOTENCY_KEY_HEADER, "increment-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(asJsonString(quantityDTO)))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(BeerController.IDEMPOTENT_REPLAYED_HEADER, replayed))
+                    .andExpect(jsonPath("$.quantity", is(beerDTO.getQuantity())));
+        }
+
+//      A mesma chave em outra requisição é recusada
+        mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
+                .header(BeerController.IDEMPOTENCY_KEY_HEADER, "increment-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quantityDTO)))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(beerService, times(1)).increment(VALID_BEER_ID, quantityDTO.getQuantity());
+        verify(beerService, never()).decrement(VALID_BEER_ID, quantityDTO.getQuantity());
+    }
+
     @Test
     void whenPATCHIsCalledToDecrementDiscountThenOKstatusIsReturned() throws Exception {
         QuantityDTO quantityDTO = QuantityDTO.builder()
@@ -341,4 +569,238 @@ public class BeerControllerTest {
                 .content(asJsonString(quantityDTO)))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+//  Quando o lote é confirmado, retorna status OK com o resultado de cada item
+    void whenPATCHStockBatchIsCommittedThenOkStatusIsReturned() throws Exception {
+        StockBatchDTO stockBatchDTO = new StockBatchDTO(StockBatchMode.ALL_OR_NOTHING,
+                Arrays.asList(new StockOperationDTO(VALID_BEER_ID, 5), new StockOperationDTO(VALID_BEER_ID, -3)));
+
+        when(stockBatchService.adjustStock(stockBatchDTO)).thenReturn(new StockBatchResultDTO(StockBatchMode.ALL_OR_NOTHING, true, Collections.emptyList()));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + BEER_API_SUBPATH_STOCK_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(stockBatchDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.committed", is(true)));
+    }
+
+    @Test
+//  A repetição do lote com os campos em outra ordem é a mesma requisição e recebe o resultado guardado
+    void whenPATCHStockBatchIsRetriedWithFieldsReorderedThenItIsReplayed() throws Exception {
+        StockBatchDTO stockBatchDTO = new StockBatchDTO(StockBatchMode.BEST_EFFORT,
+                Collections.singletonList(new StockOperationDTO(VALID_BEER_ID, 5)));
+
+        when(stockBatchService.adjustStock(stockBatchDTO)).thenReturn(new StockBatchResultDTO(StockBatchMode.BEST_EFFORT, true, Collections.emptyList()));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + BEER_API_SUBPATH_STOCK_URL)
+                .header(BeerController.IDEMPOTENCY_KEY_HEADER, "stock-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"mode\":\"BEST_EFFORT\",\"operations\":[{\"id\":" + VALID_BEER_ID + ",\"delta\":5}]}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BeerController.IDEMPOTENT_REPLAYED_HEADER, "false"));
+        mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + BEER_API_SUBPATH_STOCK_URL)
+                .header(BeerController.IDEMPOTENCY_KEY_HEADER, "stock-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"operations\":[{\"delta\":5,\"id\":" + VALID_BEER_ID + "}],\"mode\":\"BEST_EFFORT\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BeerController.IDEMPOTENT_REPLAYED_HEADER, "true"));
+
+        verify(stockBatchService, times(1)).adjustStock(stockBatchDTO);
+    }
+
+    @Test
+//  Quando o lote ALL_OR_NOTHING é desfeito, retorna status Conflict
+    void whenPATCHStockBatchIsRolledBackThenConflictStatusIsReturned() throws Exception {
+        StockBatchDTO stockBatchDTO = new StockBatchDTO(StockBatchMode.ALL_OR_NOTHING,
+                Collections.singletonList(new StockOperationDTO(INVALID_BEER_ID, 5)));
+
+        when(stockBatchService.adjustStock(stockBatchDTO)).thenReturn(new StockBatchResultDTO(StockBatchMode.ALL_OR_NOTHING, false, Collections.emptyList()));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + BEER_API_SUBPATH_STOCK_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(stockBatchDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.committed", is(false)));
+    }
+
+    @Test
+//  Quando um item passa do limite do QuantityDTO, retorna Bad Request
+    void whenPATCHStockBatchIsCalledWithDeltaOutOfRangeThenBadRequestStatusIsReturned() throws Exception {
+        StockBatchDTO stockBatchDTO = new StockBatchDTO(StockBatchMode.BEST_EFFORT,
+                Collections.singletonList(new StockOperationDTO(VALID_BEER_ID, -101)));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + BEER_API_SUBPATH_STOCK_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(stockBatchDTO)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+//  Quando a reserva é criada, retorna status Created com o prazo de expiração
+    void whenPOSTReservationIsCalledThenCreatedStatusIsReturned() throws Exception {
+        ReservationRequestDTO reservationRequestDTO = new ReservationRequestDTO(5);
+        ReservationDTO reservationDTO = new ReservationDTO("r1", VALID_BEER_ID, 5, Instant.now());
+
+        when(reservationService.reserve(VALID_BEER_ID, 5)).thenReturn(reservationDTO);
+
+        mockMvc.perform(post(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_RESERVATIONS_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(reservationRequestDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is("r1")))
+                .andExpect(jsonPath("$.quantity", is(5)));
+    }
+
+    @Test
+//  Reserva precisa segurar ao menos uma unidade
+    void whenPOSTReservationIsCalledWithZeroQuantityThenBadRequestStatusIsReturned() throws Exception {
+        mockMvc.perform(post(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_RESERVATIONS_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(new ReservationRequestDTO(0))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+//  Quando a reserva é confirmada, retorna a cerveja com o novo estoque
+    void whenPOSTReservationConfirmIsCalledThenOkStatusIsReturned() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        when(reservationService.confirm("r1")).thenReturn(beerDTO);
+
+        mockMvc.perform(post(BEER_API_URL_PATH + BEER_API_SUBPATH_RESERVATIONS_URL + "/r1/confirm"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is(beerDTO.getName())));
+    }
+
+    @Test
+//  Quando a reserva não existe ou ja expirou, retorna Not Found
+    void whenDELETEReservationIsCalledWithInvalidIdThenNotFoundStatusIsReturned() throws Exception {
+        doThrow(ReservationNotFoundException.class).when(reservationService).release(INVALID_RESERVATION_ID);
+
+        mockMvc.perform(MockMvcRequestBuilders.delete(BEER_API_URL_PATH + BEER_API_SUBPATH_RESERVATIONS_URL + "/" + INVALID_RESERVATION_ID))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+//  Os totais vem da view em memória, sem passar pelo service
+    void whenGETAggregatesIsCalledThenOkStatusIsReturned() throws Exception {
+        StockAggregateDTO lagerAggregate = new StockAggregateDTO(2, 30L, 100L, 0.3);
+        StockAggregatesDTO stockAggregatesDTO = new StockAggregatesDTO(lagerAggregate,
+                Map.of(BeerType.LAGER, lagerAggregate), Map.of("Ambev", lagerAggregate));
+
+        when(stockAggregatesView.getAggregates()).thenReturn(stockAggregatesDTO);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + BEER_API_SUBPATH_AGGREGATES_URL)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total.skuCount", is(2)))
+                .andExpect(jsonPath("$.byType.LAGER.totalUnits", is(30)))
+                .andExpect(jsonPath("$.byBrand.Ambev.fillRatio", is(0.3)));
+    }
+
+    @Test
+//  Sem limit, retorna as 10 cervejas com menos estoque do tipo pedido
+    void whenGETLowStockIsCalledThenOkStatusIsReturned() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        when(stockLevelView.findLowStock(BeerType.LAGER, 20, 10)).thenReturn(Collections.singletonList(beerDTO));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + BEER_API_SUBPATH_LOW_STOCK_URL)
+                .param("type", BeerType.LAGER.name())
+                .param("threshold", "20")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(beerDTO.getName())));
+    }
+
+    @Test
+//  Quando o limite passa do maximo, retornar Bad Request
+    void whenGETNearCapacityIsCalledWithLimitGreatherThanMaxThenBadRequestStatusIsReturned() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + BEER_API_SUBPATH_NEAR_CAPACITY_URL)
+                .param("limit", "101")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+//  Sem limit, retorna os 10 resultados mais relevantes
+    void whenGETSearchIsCalledThenRankedResultsAreReturned() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerSearchResultDTO searchResultDTO = new BeerSearchResultDTO(beerDTO.getId(), beerDTO.getName(), beerDTO.getBrand(), beerDTO.getType(), 3.0);
+
+        when(beerSearchView.search("bra", 10)).thenReturn(Collections.singletonList(searchResultDTO));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + BEER_API_SUBPATH_SEARCH_URL)
+                .param("q", "bra")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(beerDTO.getName())));
+    }
+
+    @Test
+//  Busca sem texto retorna Bad Request
+    void whenGETSearchIsCalledWithoutTextThenBadRequestStatusIsReturned() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + BEER_API_SUBPATH_SEARCH_URL)
+                .param("q", " ")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+//  Com a ETag atual do catalogo, retorna Not Modified sem chamar o service
+    void whenGETListIsCalledWithCurrentETagThenNotModifiedStatusIsReturned() throws Exception {
+        String eTag = catalogVersions.getCatalogETag();
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        verify(beerService, never()).listAll();
+    }
+
+    @Test
+//  A ETag é fraca: a mesma versão dos dados vale para qualquer formato e codificação da resposta
+    void whenGETListIsCalledThenWeakETagIsReturned() throws Exception {
+        when(beerService.listAll()).thenReturn(Collections.emptyList());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("W/\"")));
+    }
+
+    @Test
+//  Depois de uma alteração da cerveja, a ETag antiga não vale mais e a cerveja é retornada com a nova
+    void whenBeerChangesThenOldETagReturnsTheBeerAgain() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        String oldETag = catalogVersions.getBeerETag(beerDTO.getName());
+        catalogVersions.onBeerChanged(BeerChangedEvent.updated(beerDTO, beerDTO));
+
+        when(beerService.findByName(beerDTO.getName())).thenReturn(beerDTO);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/" + beerDTO.getName())
+                .header(HttpHeaders.IF_NONE_MATCH, oldETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersions.getBeerETag(beerDTO.getName())))
+                .andExpect(jsonPath("$.name", is(beerDTO.getName())));
+    }
+
+    @Test
+//  Com Accept: application/cbor, a listagem vem em CBOR e volta para as mesmas cervejas
+    void whenGETListIsCalledAcceptingCborThenCborIsReturned() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        when(beerService.listAll()).thenReturn(Collections.singletonList(beerDTO));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH)
+                .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        List<BeerDTO> beers = new ObjectMapper(new CBORFactory())
+                .readValue(result.getResponse().getContentAsByteArray(), new TypeReference<List<BeerDTO>>() { });
+        assertThat(beers, contains(beerDTO));
+    }
 }
@@ -0,0 +1,66 @@
+package one.digitalinnovation.beerstock.journal;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+public class ReplayedCatalogTest {
+
+    @Test
+//  O estoque final é a soma dos deltas, mesmo com os ajustes fora de ordem
+    void whenUpdatesAreOutOfOrderThenFinalQuantityIsTheSumOfDeltas() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO plusFive = BeerDTOBuilder.builder().quantity(15).build().toBeerDTO();
+        BeerDTO plusFiveMinusTwo = BeerDTOBuilder.builder().quantity(13).build().toBeerDTO();
+
+        ReplayedCatalog catalog = new ReplayedCatalog();
+        catalog.apply(entry(1, BeerChangedEvent.created(beerDTO)));
+        catalog.apply(entry(2, BeerChangedEvent.updated(plusFive, plusFiveMinusTwo)));
+        catalog.apply(entry(3, BeerChangedEvent.updated(beerDTO, plusFive)));
+
+        assertThat(catalog.getBeers(), hasSize(1));
+        assertThat(catalog.getBeers().iterator().next().getQuantity(), equalTo(13));
+        assertThat(catalog.getLastSequence(), equalTo(3L));
+    }
+
+    @Test
+//  Um ajuste registrado depois da exclusão não recria a cerveja
+    void whenBeerIsDeletedThenLaterUpdatesAreIgnored() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO plusFive = BeerDTOBuilder.builder().quantity(15).build().toBeerDTO();
+
+        ReplayedCatalog catalog = new ReplayedCatalog();
+        catalog.apply(entry(1, BeerChangedEvent.created(beerDTO)));
+        catalog.apply(entry(2, BeerChangedEvent.deleted(plusFive)));
+        catalog.apply(entry(3, BeerChangedEvent.updated(beerDTO, plusFive)));
+
+        assertThat(catalog.getBeers(), empty());
+    }
+
+    @Test
+//  O id de uma cerveja excluida continua contando como usado, também depois de passar pelo snapshot
+    void whenBeerIsDeletedThenItsIdIsStillTheHighestUsed() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO deletedBeerDTO = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+
+        ReplayedCatalog catalog = new ReplayedCatalog();
+        catalog.apply(entry(1, BeerChangedEvent.created(beerDTO)));
+        catalog.apply(entry(2, BeerChangedEvent.created(deletedBeerDTO)));
+        catalog.apply(entry(3, BeerChangedEvent.deleted(deletedBeerDTO)));
+        ReplayedCatalog fromSnapshot = new ReplayedCatalog(catalog.getLastSequence(), catalog.getBeers(), catalog.getDeletedIds());
+
+        assertThat(catalog.getBeers(), hasSize(1));
+        assertThat(catalog.getHighestId(), equalTo(2L));
+        assertThat(fromSnapshot.getHighestId(), equalTo(2L));
+    }
+
+    private static JournalEntry entry(long sequence, BeerChangedEvent event) {
+        return JournalEntry.of(event, System.currentTimeMillis()).withSequence(sequence);
+    }
+}
@@ -0,0 +1,129 @@
+package one.digitalinnovation.beerstock.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.JournalEntryType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThan;
+
+public class StockJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+//  Os registros são gravados em ordem, com sequencia, e lidos de volta com o estado da cerveja
+    void whenBeerChangesThenEntriesAreAppendedInOrder() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO incrementedBeerDTO = BeerDTOBuilder.builder().quantity(15).build().toBeerDTO();
+
+        StockJournal stockJournal = open(DataSize.ofMegabytes(1));
+        stockJournal.onBeerChanged(BeerChangedEvent.created(beerDTO));
+        stockJournal.onBeerChanged(BeerChangedEvent.updated(beerDTO, incrementedBeerDTO));
+        stockJournal.onBeerChanged(BeerChangedEvent.deleted(incrementedBeerDTO));
+        stockJournal.close();
+
+        List<JournalEntry> entries = readAll();
+        assertThat(entries, hasSize(3));
+        assertThat(entries.get(0).getType(), equalTo(JournalEntryType.CREATED));
+        assertThat(entries.get(1).getDelta(), equalTo(5));
+        assertThat(entries.get(1).getBeer(), equalTo(incrementedBeerDTO));
+        assertThat(entries.get(2).getType(), equalTo(JournalEntryType.DELETED));
+        assertThat(sequences(entries), contains(1L, 2L, 3L));
+    }
+
+    @Test
+//  Reaberto, o journal continua a sequencia depois do ultimo registro
+    void whenJournalIsReopenedThenSequenceContinues() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        StockJournal stockJournal = open(DataSize.ofMegabytes(1));
+        stockJournal.onBeerChanged(BeerChangedEvent.created(beerDTO));
+        stockJournal.close();
+        StockJournal reopenedStockJournal = open(DataSize.ofMegabytes(1));
+        reopenedStockJournal.onBeerChanged(BeerChangedEvent.deleted(beerDTO));
+        reopenedStockJournal.close();
+
+        assertThat(sequences(readAll()), contains(1L, 2L));
+    }
+
+    @Test
+//  Com fsync e ack-timeout, o registro ja esta gravado quando a chamada retorna, antes de fechar o journal
+    void whenAckTimeoutIsSetThenEntryIsWrittenBeforeOnBeerChangedReturns() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        StockJournal stockJournal = open(DataSize.ofMegabytes(1), Duration.ofSeconds(5));
+        stockJournal.onBeerChanged(BeerChangedEvent.created(beerDTO));
+        List<JournalEntry> entries = new ArrayList<>();
+        stockJournal.read(0, entries::add);
+        stockJournal.close();
+
+        assertThat(sequences(entries), contains(1L));
+    }
+
+    @Test
+//  Com ack-timeout 0 a chamada so enfileira: retorna na hora mesmo sem a thread de gravação
+    void whenAckTimeoutIsZeroThenOnBeerChangedDoesNotWaitForTheWriter() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        StockJournal stockJournal = open(DataSize.ofMegabytes(1), Duration.ZERO);
+        stockJournal.close();
+        long start = System.nanoTime();
+        stockJournal.onBeerChanged(BeerChangedEvent.created(beerDTO));
+
+        assertThat(System.nanoTime() - start, lessThan(TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    @Test
+//  Quando o segmento enche, o journal continua em um novo arquivo
+    void whenSegmentIsFullThenJournalRollsToNextSegment() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        StockJournal stockJournal = open(DataSize.ofBytes(512));
+        for (int i = 0; i < 20; i++) {
+            stockJournal.onBeerChanged(BeerChangedEvent.updated(beerDTO, beerDTO));
+        }
+        stockJournal.close();
+
+        assertThat(JournalSegment.list(directory).size(), greaterThan(1));
+        assertThat(readAll(), hasSize(20));
+    }
+
+    private StockJournal open(DataSize segmentSize) throws Exception {
+        return open(segmentSize, Duration.ZERO);
+    }
+
+    private StockJournal open(DataSize segmentSize, Duration ackTimeout) throws Exception {
+        return new StockJournal(directory.toString(), segmentSize, true, 1024, 1024, ackTimeout, new SimpleMeterRegistry());
+    }
+
+    private List<JournalEntry> readAll() throws Exception {
+        List<JournalEntry> entries = new ArrayList<>();
+        for (Path segment : JournalSegment.list(directory)) {
+            JournalSegment.read(segment, entries::add);
+        }
+        return entries;
+    }
+
+    private static List<Long> sequences(List<JournalEntry> entries) {
+        List<Long> sequences = new ArrayList<>();
+        entries.forEach(entry -> sequences.add(entry.getSequence()));
+        return sequences;
+    }
+}
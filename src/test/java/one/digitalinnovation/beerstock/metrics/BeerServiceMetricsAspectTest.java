@@ -0,0 +1,120 @@
+package one.digitalinnovation.beerstock.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.cache.BeerNameCache;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.StockAdjuster;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BeerServiceMetricsAspectTest {
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private StockAdjuster stockAdjuster;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BeerService beerService;
+
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        BeerNameCache beerNameCache = new BeerNameCache(100, Duration.ofMinutes(1), meterRegistry);
+//      Proxy com o aspecto em volta de um BeerService real, como o Spring monta
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new BeerService(beerRepository, stockAdjuster, beerNameCache, eventPublisher));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new BeerServiceMetricsAspect(meterRegistry, new Duration[]{Duration.ofMillis(100)}));
+        beerService = proxyFactory.getProxy();
+    }
+
+    @Test
+//  Quando o metodo termina sem exceção, o tempo é registrado com outcome SUCCESS
+    void whenIncrementSucceedsThenTimerIsRecordedAsSuccess() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer beer = beerMapper.toModel(beerDTO);
+        when(stockAdjuster.adjust(beerDTO.getId(), 1)).thenReturn(beer);
+
+        beerService.increment(beerDTO.getId(), 1);
+
+        long count = meterRegistry.get("beerstock.service").tag("method", "increment").tag("outcome", "SUCCESS").timer().count();
+        assertThat(count, equalTo(1L));
+    }
+
+    @Test
+//  Quando o estoque é excedido, conta a exceção e registra o tempo como CLIENT_ERROR
+    void whenStockIsExceededThenErrorIsCounted() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(stockAdjuster.adjust(beerDTO.getId(), 1000)).thenThrow(new BeerStockExceededException(beerDTO.getId(), 1000));
+
+        assertThrows(BeerStockExceededException.class, () -> beerService.increment(beerDTO.getId(), 1000));
+
+        double errors = meterRegistry.get("beerstock.service.errors").tag("method", "increment")
+                .tag("exception", "BeerStockExceededException").counter().count();
+        long count = meterRegistry.get("beerstock.service").tag("method", "increment").tag("outcome", "CLIENT_ERROR").timer().count();
+        assertThat(errors, equalTo(1.0));
+        assertThat(count, equalTo(1L));
+    }
+
+    @Test
+//  Quando dois ajustes da mesma cerveja acontecem ao mesmo tempo, o segundo é contado como disputa
+    void whenTwoAdjustmentsOverlapOnSameBeerThenContentionIsRecorded() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer beer = beerMapper.toModel(beerDTO);
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(stockAdjuster.adjust(beerDTO.getId(), 1)).thenAnswer(invocation -> {
+            firstStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return beer;
+        });
+        when(stockAdjuster.adjust(beerDTO.getId(), -1)).thenReturn(beer);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<BeerDTO> first = executor.submit(() -> beerService.increment(beerDTO.getId(), 1));
+            firstStarted.await(5, TimeUnit.SECONDS);
+            beerService.decrement(beerDTO.getId(), 1);
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(meterRegistry.get("beerstock.stock.contended").counter().count(), equalTo(1.0));
+        assertThat(meterRegistry.get("beerstock.stock.concurrency").summary().max(), equalTo(2.0));
+        assertThat(meterRegistry.get("beerstock.stock.in.flight").gauge().value(), equalTo(0.0));
+    }
+}
@@ -0,0 +1,38 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+// Carga em massa contra o H2 de verdade, para conferir onde a sequence de ids recomeça
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:beer-bulk-loader;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+public class BeerBulkLoaderTest {
+
+    @Autowired
+    private BeerBulkLoader beerBulkLoader;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Test
+//  Exclusão, reinicialização e criação: a cerveja nova não recebe o id da excluida
+    void whenBeerIsDeletedBeforeRestartThenNewBeerDoesNotReuseItsId() {
+        Beer brahma = new Beer(1L, "Brahma", "Ambev", 50, 10, 0, BeerType.LAGER, 0L);
+        Beer skol = new Beer(2L, "Skol", "Ambev", 50, 10, 0, BeerType.LAGER, 0L);
+        beerBulkLoader.replaceAll(List.of(brahma, skol), 2L);
+        beerRepository.deleteById(skol.getId());
+
+//      Na subida seguinte so a Brahma é carregada, mas o id 2 continua como o maior ja usado
+        beerBulkLoader.replaceAll(List.of(brahma), 2L);
+        Beer created = beerRepository.save(new Beer(null, "Heineken", "Heineken", 50, 10, 0, BeerType.LAGER, null));
+
+        assertThat(created.getId(), greaterThan(skol.getId()));
+    }
+}
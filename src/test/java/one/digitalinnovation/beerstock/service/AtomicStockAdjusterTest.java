@@ -0,0 +1,83 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AtomicStockAdjusterTest {
+
+    private static final long INVALID_BEER_ID = 1L;
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    private BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @InjectMocks
+    private AtomicStockAdjuster atomicStockAdjuster;
+
+    @Test
+//  Quando o UPDATE condicional altera a linha, retorna o novo nivel de estoque
+    void whenAdjustIsAppliedThenReturnBeerWithNewStock() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+
+        int quantityToIncrement = 10;
+        int expectedQuantityAfterIncrement = expectedBeerDTO.getQuantity() + quantityToIncrement;
+//      Cerveja como fica no banco depois do UPDATE
+        expectedBeer.setQuantity(expectedQuantityAfterIncrement);
+
+//      1° Refinamento, UPDATE condicional altera uma linha
+        when(beerRepository.adjustStock(expectedBeerDTO.getId(), quantityToIncrement, 0)).thenReturn(1);
+//      2° Refinamento, buscar o novo nivel de estoque
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+
+        Beer adjustedBeer = atomicStockAdjuster.adjust(expectedBeerDTO.getId(), quantityToIncrement);
+
+        assertThat(adjustedBeer.getQuantity(), equalTo(expectedQuantityAfterIncrement));
+//      Com o UPDATE aplicado, não precisa verificar existencia
+        verify(beerRepository, never()).existsById(expectedBeerDTO.getId());
+    }
+
+    @Test
+//  Quando o UPDATE não altera nenhuma linha e a cerveja existe, o limite foi violado
+    void whenAdjustIsOutOfBoundsThenThrowException() {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        int quantityToDecrement = 80;
+        when(beerRepository.adjustStock(expectedBeerDTO.getId(), -quantityToDecrement, 0)).thenReturn(0);
+        when(beerRepository.existsById(expectedBeerDTO.getId())).thenReturn(true);
+
+        assertThrows(BeerStockExceededException.class, () -> atomicStockAdjuster.adjust(expectedBeerDTO.getId(), -quantityToDecrement));
+    }
+
+    @Test
+//  Quando o UPDATE não altera nenhuma linha e a cerveja não existe, lança excessao
+    void whenAdjustIsCalledWithInvalidIdThenThrowException() {
+        int quantityToIncrement = 10;
+
+        when(beerRepository.adjustStock(INVALID_BEER_ID, quantityToIncrement, 0)).thenReturn(0);
+        when(beerRepository.existsById(INVALID_BEER_ID)).thenReturn(false);
+
+        assertThrows(BeerNotFoundException.class, () -> atomicStockAdjuster.adjust(INVALID_BEER_ID, quantityToIncrement));
+    }
+}
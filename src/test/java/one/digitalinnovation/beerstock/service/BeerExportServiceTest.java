@@ -0,0 +1,87 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BeerExportServiceTest {
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private BeerExportService beerExportService;
+
+    @BeforeEach
+    void setUp() {
+        beerExportService = new BeerExportService(beerRepository, entityManager, objectMapper);
+    }
+
+    @Test
+//  Cada cerveja vira uma linha JSON e sai do contexto de persistencia
+    void whenExportIsCalledThenEachBeerIsWrittenAsOneJsonLine() throws IOException {
+        BeerDTO firstBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO secondBeerDTO = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+        Beer firstBeer = beerMapper.toModel(firstBeerDTO);
+        Beer secondBeer = beerMapper.toModel(secondBeerDTO);
+
+        when(beerRepository.streamAll()).thenReturn(Stream.of(firstBeer, secondBeer));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        long exported = beerExportService.exportAll(outputStream);
+
+        String expected = objectMapper.writeValueAsString(firstBeerDTO) + "\n" + objectMapper.writeValueAsString(secondBeerDTO) + "\n";
+        assertThat(exported, is(equalTo(2L)));
+        assertThat(outputStream.toString(StandardCharsets.UTF_8), is(equalTo(expected)));
+        verify(entityManager).detach(firstBeer);
+        verify(entityManager).detach(secondBeer);
+    }
+
+    @Test
+//  Abaixo do intervalo de envio a resposta so é enviada uma vez, ao fechar o gerador
+    void whenExportIsSmallerThanFlushIntervalThenOutputIsFlushedOnlyOnClose() throws IOException {
+        BeerDTO firstBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO secondBeerDTO = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+
+        when(beerRepository.streamAll()).thenReturn(Stream.of(beerMapper.toModel(firstBeerDTO), beerMapper.toModel(secondBeerDTO)));
+
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+        beerExportService.exportAll(outputStream);
+
+        assertThat(flushes.get(), is(equalTo(1)));
+    }
+}
@@ -0,0 +1,63 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.StockAggregateDTO;
+import one.digitalinnovation.beerstock.view.StockAggregatesView;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+// BeerService no modo ledger contra o H2 de verdade, com o flush chamado pelo teste
+// O cache de segundo nivel (Caffeine JCache) é do processo inteiro: o prefixo proprio evita ler cervejas de outro contexto
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:beer-service-ledger;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.cache.region_prefix=beer-service-ledger",
+        "beerstock.stock.mode=ledger",
+        "beerstock.stock.ledger.flush-interval-ms=3600000"})
+public class BeerServiceLedgerTest {
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private LedgerStockAdjuster ledgerStockAdjuster;
+
+    @Autowired
+    private StockAggregatesView stockAggregatesView;
+
+    @Test
+//  Depois do incremento e do flush, a busca por nome e a listagem mostram o mesmo estoque
+    void whenStockIsFlushedThenFindByNameReturnsAdjustedStock() throws Exception {
+        BeerDTO createdBeerDTO = beerService.createBeer(BeerDTOBuilder.builder().id(null).name("Heineken").build().toBeerDTO());
+
+        beerService.increment(createdBeerDTO.getId(), 5);
+//      Leitura entre o ajuste e o flush, quando o banco ainda tem o estoque antigo
+        assertThat(beerService.findByName(createdBeerDTO.getName()).getQuantity(), equalTo(15));
+        ledgerStockAdjuster.flush();
+
+        assertThat(beerService.findByName(createdBeerDTO.getName()).getQuantity(), equalTo(15));
+        assertThat(beerService.listAll().stream()
+                .filter(beerDTO -> beerDTO.getId().equals(createdBeerDTO.getId()))
+                .findFirst().get().getQuantity(), equalTo(15));
+    }
+
+    @Test
+//  Exclusão com delta ainda não gravado: os totais tiram o estoque em memória, não o da linha do banco
+    void whenBeerIsDeletedBeforeFlushThenAggregatesDropItsCurrentStock() throws Exception {
+        BeerDTO keptBeerDTO = beerService.createBeer(BeerDTOBuilder.builder().id(null).name("Bohemia")
+                .brand("Bohemia").quantity(10).build().toBeerDTO());
+        BeerDTO deletedBeerDTO = beerService.createBeer(BeerDTOBuilder.builder().id(null).name("Bohemia Puro Malte")
+                .brand("Bohemia").quantity(10).build().toBeerDTO());
+
+        beerService.increment(deletedBeerDTO.getId(), 5);
+        beerService.deleteById(deletedBeerDTO.getId());
+
+        StockAggregateDTO brandAggregate = stockAggregatesView.getAggregates().getByBrand().get("Bohemia");
+        assertThat(brandAggregate.getSkuCount(), equalTo(1));
+        assertThat(brandAggregate.getTotalUnits(), equalTo((long) keptBeerDTO.getQuantity()));
+    }
+}
@@ -1,8 +1,14 @@
 package one.digitalinnovation.beerstock.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.cache.BeerNameCache;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageRequestDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
 import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
@@ -12,11 +18,16 @@ import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.ApplicationEventPublisher;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -31,6 +42,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.times;
@@ -47,6 +60,16 @@ public class BeerServiceTest {
     @Mock
     private BeerRepository beerRepository;
 
+    @Mock
+    private StockAdjuster stockAdjuster;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+//  Cache real, cada teste começa com ele vazio
+    @Spy
+    private BeerNameCache beerNameCache = new BeerNameCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
     private BeerMapper beerMapper = BeerMapper.INSTANCE;
 
     @InjectMocks
@@ -64,7 +87,7 @@ public class BeerServiceTest {
         // when
 //      Usando Mockito
 //      Quando buscar a cerveja Default (Brahma) vai retornar um vazio
-        Mockito.when(beerRepository.findByName(expectedBeerDTO.getName())).thenReturn(Optional.empty());
+        Mockito.when(beerRepository.findProjectedByName(expectedBeerDTO.getName())).thenReturn(Optional.empty());
 //      Vai salvar a cerveja Default e retorna-la
         Mockito.when(beerRepository.save(expectedSavedBeer)).thenReturn(expectedSavedBeer);
 
@@ -91,32 +114,78 @@ public class BeerServiceTest {
         // given
 //      Cria uma cerveja com valores Default
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
-//      Converte para o modelo Beer
-        Beer duplicatedBeer = beerMapper.toModel(expectedBeerDTO);
 
         // when
 //      Usando Mockito
-//      Quando buscar a cerveja Default (Brahma) vai retornar um duplicatedBeer
-        when(beerRepository.findByName(expectedBeerDTO.getName())).thenReturn(Optional.of(duplicatedBeer));
+//      Quando buscar a cerveja Default (Brahma) vai retornar a cerveja ja cadastrada
+        when(beerRepository.findProjectedByName(expectedBeerDTO.getName())).thenReturn(Optional.of(expectedBeerDTO));
 
         // then
 //      Essa excessão é lançada quando em uma outra thread chamar createBeer
         assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeer(expectedBeerDTO));
     }
 
+    @Test
+//  Quando uma lista de cervejas é informada, todas são criadas com uma unica verificação de nomes
+    void whenBeerListInformedThenBeersShouldBeCreatedInBulk() throws BeerAlreadyRegisteredException {
+        // given
+        BeerDTO firstBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO secondBeerDTO = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+        List<BeerDTO> beersDTO = Arrays.asList(firstBeerDTO, secondBeerDTO);
+
+        // when
+//      Nenhum dos nomes esta cadastrado
+        when(beerRepository.findRegisteredNames(Arrays.asList(firstBeerDTO.getName(), secondBeerDTO.getName()))).thenReturn(Collections.emptyList());
+//      Salva e devolve as cervejas recebidas
+        when(beerRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // then
+        List<BeerDTO> createdBeersDTO = beerService.createBeers(beersDTO);
+
+        assertThat(createdBeersDTO, hasSize(2));
+        assertThat(createdBeersDTO.get(1).getName(), is(equalTo(secondBeerDTO.getName())));
+//      Nenhum findByName por cerveja
+        verify(beerRepository, never()).findProjectedByName(anyString());
+    }
+
+    @Test
+//  Quando algum nome do lote ja esta cadastrado, nada é criado
+    void whenBulkHasAlreadyRegisteredBeerThenAnExceptionShouldBeThrown() {
+        // given
+        BeerDTO firstBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO secondBeerDTO = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+
+        // when
+        when(beerRepository.findRegisteredNames(Arrays.asList(firstBeerDTO.getName(), secondBeerDTO.getName()))).thenReturn(Collections.singletonList(secondBeerDTO.getName()));
+
+        // then
+        assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeers(Arrays.asList(firstBeerDTO, secondBeerDTO)));
+        verify(beerRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+//  Quando o mesmo nome se repete no lote, nada é criado
+    void whenBulkHasDuplicatedNamesThenAnExceptionShouldBeThrown() {
+        // given
+        BeerDTO firstBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO duplicatedBeerDTO = BeerDTOBuilder.builder().id(2L).build().toBeerDTO();
+
+        // then
+        assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeers(Arrays.asList(firstBeerDTO, duplicatedBeerDTO)));
+        verify(beerRepository, never()).saveAll(anyList());
+    }
+
     @Test
 //  Quando um nome valido de cerveja, retorna a cerveja
     void whenValidBeerNameIsGivenThenReturnABeer() throws BeerNotFoundException {
         // given
 //      Cria uma cerveja com valores Default
         BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
-//      Converte para o modelo Beer
-        Beer expectedFoundBeer = beerMapper.toModel(expectedFoundBeerDTO);
 
         // when
 //      Usando Mockito
 //      Quando busca o nome da cerveja Default, retorna a cerveja
-        when(beerRepository.findByName(expectedFoundBeer.getName())).thenReturn(Optional.of(expectedFoundBeer));
+        when(beerRepository.findProjectedByName(expectedFoundBeerDTO.getName())).thenReturn(Optional.of(expectedFoundBeerDTO));
 
         // then
 //      Realmente busca a cerveja Default no banco de dados chamando o service
@@ -135,25 +204,55 @@ public class BeerServiceTest {
 
         // when
 //      Quando busca o nome da cerveja Default, retorna vazio
-        when(beerRepository.findByName(expectedFoundBeerDTO.getName())).thenReturn(Optional.empty());
+        when(beerRepository.findProjectedByName(expectedFoundBeerDTO.getName())).thenReturn(Optional.empty());
 
         // then
 //      Essa excessão é lançada quando em uma outra thread chamar findByName
         assertThrows(BeerNotFoundException.class, () -> beerService.findByName(expectedFoundBeerDTO.getName()));
     }
 
+    @Test
+//  Quando o mesmo nome é buscado duas vezes, o banco so é consultado na primeira
+    void whenBeerNameIsSearchedTwiceThenRepositoryIsCalledOnce() throws BeerNotFoundException {
+        // given
+        BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // when
+        when(beerRepository.findProjectedByName(expectedFoundBeerDTO.getName())).thenReturn(Optional.of(expectedFoundBeerDTO));
+
+        // then
+        beerService.findByName(expectedFoundBeerDTO.getName());
+        BeerDTO foundBeerDTO = beerService.findByName(expectedFoundBeerDTO.getName());
+
+        assertThat(foundBeerDTO, is(equalTo(expectedFoundBeerDTO)));
+        verify(beerRepository, times(1)).findProjectedByName(expectedFoundBeerDTO.getName());
+    }
+
+    @Test
+//  Quando um nome inexistente é buscado duas vezes, a ausencia tambem fica em cache
+    void whenNotRegisteredBeerNameIsSearchedTwiceThenRepositoryIsCalledOnce() {
+        // given
+        BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // when
+        when(beerRepository.findProjectedByName(expectedFoundBeerDTO.getName())).thenReturn(Optional.empty());
+
+        // then
+        assertThrows(BeerNotFoundException.class, () -> beerService.findByName(expectedFoundBeerDTO.getName()));
+        assertThrows(BeerNotFoundException.class, () -> beerService.findByName(expectedFoundBeerDTO.getName()));
+        verify(beerRepository, times(1)).findProjectedByName(expectedFoundBeerDTO.getName());
+    }
+
     @Test
 //  Quando chamar ListBeer, retornar lista de cervejas
     void whenListBeerIsCalledThenReturnAListOfBeers() {
         // given
 //      Cria uma cerveja com valores Default
         BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
-//      Converte para o modelo Beer
-        Beer expectedFoundBeer = beerMapper.toModel(expectedFoundBeerDTO);
 
         //when
-//      Quando chamar findAll, retornar uma coleção
-        when(beerRepository.findAll()).thenReturn(Collections.singletonList(expectedFoundBeer));
+//      Quando chamar a projeção, retornar uma coleção de DTOs montados direto da consulta
+        when(beerRepository.findAllProjected()).thenReturn(Collections.singletonList(expectedFoundBeerDTO));
 
         //then
 //      Cria uma lista chamando o listAll
@@ -169,8 +268,8 @@ public class BeerServiceTest {
 //  Quando chamar ListBeer, retornar lista vazia de cervejas
     void whenListBeerIsCalledThenReturnAnEmptyListOfBeers() {
         //when
-//      Quando chamar findAll, retornar uma colecao vazia
-        when(beerRepository.findAll()).thenReturn(Collections.EMPTY_LIST);
+//      Quando chamar a projeção, retornar uma colecao vazia
+        when(beerRepository.findAllProjected()).thenReturn(Collections.EMPTY_LIST);
 
         //then
 //      Cria uma lista chamando o listAll
@@ -180,6 +279,45 @@ public class BeerServiceTest {
         assertThat(foundListBeersDTO, is(empty()));
     }
 
+    @Test
+//  Quando existe mais cervejas que o tamanho da pagina, retorna o cursor da proxima
+    void whenListPageHasMoreBeersThenReturnNextCursor() {
+        // given
+        BeerDTO firstBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO secondBeerDTO = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+        BeerPageRequestDTO pageRequestDTO = BeerPageRequestDTO.builder().size(1).type(BeerType.LAGER).build();
+
+        // when
+//      Busca sempre um a mais que o tamanho da pagina
+        when(beerRepository.findPage(null, BeerType.LAGER, null, null, null, 2))
+                .thenReturn(Arrays.asList(beerMapper.toModel(firstBeerDTO), beerMapper.toModel(secondBeerDTO)));
+
+        // then
+        BeerPageDTO pageDTO = beerService.listPage(pageRequestDTO);
+
+        assertThat(pageDTO.getContent(), hasSize(1));
+        assertThat(pageDTO.getContent().get(0), is(equalTo(firstBeerDTO)));
+        assertThat(pageDTO.getNextCursor(), is(equalTo(firstBeerDTO.getId())));
+    }
+
+    @Test
+//  Quando é a ultima pagina, o cursor é nulo
+    void whenListPageIsLastPageThenNextCursorIsNull() {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().id(5L).build().toBeerDTO();
+        BeerPageRequestDTO pageRequestDTO = BeerPageRequestDTO.builder().after(4L).build();
+
+        // when
+        when(beerRepository.findPage(4L, null, null, null, null, 21))
+                .thenReturn(Collections.singletonList(beerMapper.toModel(beerDTO)));
+
+        // then
+        BeerPageDTO pageDTO = beerService.listPage(pageRequestDTO);
+
+        assertThat(pageDTO.getContent(), hasSize(1));
+        assertThat(pageDTO.getNextCursor(), is(nullValue()));
+    }
+
     @Test
 //  Quando é chamado a exclusão com id valido, a cerveja vai ser deletado
     void whenExclusionIsCalledWithValidIdThenABeerShouldBeDeleted() throws BeerNotFoundException{
@@ -205,6 +343,24 @@ public class BeerServiceTest {
         verify(beerRepository, times(1)).deleteById(expectedDeletedBeerDTO.getId());
     }
 
+    @Test
+//  O evento de exclusão leva o estoque final da estrategia (no ledger, com os deltas ainda não gravados)
+    void whenBeerIsDeletedThenEventCarriesStockFromStockAdjuster() throws BeerNotFoundException {
+        BeerDTO expectedDeletedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer storedBeer = beerMapper.toModel(expectedDeletedBeerDTO);
+        Beer currentBeer = beerMapper.toModel(expectedDeletedBeerDTO);
+        currentBeer.setQuantity(expectedDeletedBeerDTO.getQuantity() + 5);
+        when(beerRepository.findById(expectedDeletedBeerDTO.getId())).thenReturn(Optional.of(storedBeer));
+        when(stockAdjuster.evict(storedBeer)).thenReturn(currentBeer);
+
+        beerService.deleteById(expectedDeletedBeerDTO.getId());
+
+        ArgumentCaptor<BeerChangedEvent> eventCaptor = ArgumentCaptor.forClass(BeerChangedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertTrue(eventCaptor.getValue().isDeleted());
+        assertThat(eventCaptor.getValue().getPrevious().getQuantity(), equalTo(expectedDeletedBeerDTO.getQuantity() + 5));
+    }
+
 //  Feito por Otávio Koike
     @Test
 //  Quando não não, retornar uma excessao
@@ -234,15 +390,15 @@ public class BeerServiceTest {
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
         //when
-//      1° Refinamento, buscar a cerveja
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-//      2° Refinamento, salvar a cerveja
-        when(beerRepository.save(expectedBeer)).thenReturn(expectedBeer);
-
 //      Quantas cervejas vou incrementar
         int quantityToIncrement = 10;
 //      Cervejas totais depois do incremento
         int expectedQuantityAfterIncrement = expectedBeerDTO.getQuantity() + quantityToIncrement;
+//      Cerveja como fica no banco depois do UPDATE
+        expectedBeer.setQuantity(expectedQuantityAfterIncrement);
+
+//      A estrategia de estoque aplica o incremento e retorna a cerveja atualizada
+        when(stockAdjuster.adjust(expectedBeerDTO.getId(), quantityToIncrement)).thenReturn(expectedBeer);
 
         // then
 //      Chama o incremento passando o id da cerveja Default e a quantidade a ser incrementada
@@ -254,9 +410,29 @@ public class BeerServiceTest {
         assertThat(expectedQuantityAfterIncrement, lessThan(expectedBeerDTO.getMax()));
     }
 
+    @Test
+//  Quando o estoque é alterado, publica o evento com o estado anterior e o atual
+    void whenIncrementIsCalledThenBeerChangedEventIsPublished() throws BeerNotFoundException, BeerStockExceededException {
+        // given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        int quantityToIncrement = 10;
+        expectedBeer.setQuantity(expectedBeerDTO.getQuantity() + quantityToIncrement);
+
+        // when
+        when(stockAdjuster.adjust(expectedBeerDTO.getId(), quantityToIncrement)).thenReturn(expectedBeer);
+        beerService.increment(expectedBeerDTO.getId(), quantityToIncrement);
+
+        // then
+        ArgumentCaptor<BeerChangedEvent> eventCaptor = ArgumentCaptor.forClass(BeerChangedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getPrevious().getQuantity(), equalTo(expectedBeerDTO.getQuantity()));
+        assertThat(eventCaptor.getValue().getCurrent().getQuantity(), equalTo(expectedBeer.getQuantity()));
+    }
+
     @Test
 //  Quando o incremento é maior que o maximo, lança exceção
-    void whenIncrementIsGreatherThanMaxThenThrowException() {
+    void whenIncrementIsGreatherThanMaxThenThrowException() throws BeerNotFoundException, BeerStockExceededException {
         //given
 //      Cria uma cerveja com valores Default
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
@@ -264,19 +440,19 @@ public class BeerServiceTest {
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
         //when
-//      1° Refinamento, buscar a cerveja
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-
-        // then
 //      Incremento maior que o max
         int quantityToIncrement = 80;
+//      A estrategia de estoque rejeita o incremento
+        when(stockAdjuster.adjust(expectedBeerDTO.getId(), quantityToIncrement)).thenThrow(BeerStockExceededException.class);
+
+        // then
 //      lança excessao quando chama incremento
         assertThrows(BeerStockExceededException.class, () -> beerService.increment(expectedBeerDTO.getId(), quantityToIncrement));
     }
 
     @Test
 //  Quando a soma do incremento é maior que o maximo, lança uma excessao
-    void whenIncrementAfterSumIsGreatherThanMaxThenThrowException() {
+    void whenIncrementAfterSumIsGreatherThanMaxThenThrowException() throws BeerNotFoundException, BeerStockExceededException {
         //given
 //      Cria uma cerveja com valores Default
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
@@ -284,23 +460,23 @@ public class BeerServiceTest {
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
         //When
-//      1° Refinamento, buscar a cerveja
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-
-        // Then
 //      Incremento
         int quantityToIncrement = 45;
+//      A estrategia de estoque rejeita o incremento
+        when(stockAdjuster.adjust(expectedBeerDTO.getId(), quantityToIncrement)).thenThrow(BeerStockExceededException.class);
+
+        // Then
 //      lança excessao ao incrementar
         assertThrows(BeerStockExceededException.class, () -> beerService.increment(expectedBeerDTO.getId(), quantityToIncrement));
     }
 
     @Test
 //  Quando incremento é chamado com id Invalido, lança excessao
-    void whenIncrementIsCalledWithInvalidIdThenThrowException() {
+    void whenIncrementIsCalledWithInvalidIdThenThrowException() throws BeerNotFoundException, BeerStockExceededException {
         int quantityToIncrement = 10;
 
-//      busca um id invalido
-        when(beerRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+//      A estrategia de estoque não encontra o id invalido
+        when(stockAdjuster.adjust(INVALID_BEER_ID, quantityToIncrement)).thenThrow(BeerNotFoundException.class);
 
 //      lança uma excessao quando chamar o incremento
         assertThrows(BeerNotFoundException.class, () -> beerService.increment(INVALID_BEER_ID, quantityToIncrement));
@@ -311,11 +487,12 @@ public class BeerServiceTest {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-        when(beerRepository.save(expectedBeer)).thenReturn(expectedBeer);
-
         int quantityToDecrement = 5;
         int expectedQuantityAfterDecrement = expectedBeerDTO.getQuantity() - quantityToDecrement;
+        expectedBeer.setQuantity(expectedQuantityAfterDecrement);
+
+        when(stockAdjuster.adjust(expectedBeerDTO.getId(), -quantityToDecrement)).thenReturn(expectedBeer);
+
         BeerDTO incrementedBeerDTO = beerService.decrement(expectedBeerDTO.getId(), quantityToDecrement);
 
         assertThat(expectedQuantityAfterDecrement, equalTo(incrementedBeerDTO.getQuantity()));
@@ -327,11 +504,12 @@ public class BeerServiceTest {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-        when(beerRepository.save(expectedBeer)).thenReturn(expectedBeer);
-
         int quantityToDecrement = 10;
         int expectedQuantityAfterDecrement = expectedBeerDTO.getQuantity() - quantityToDecrement;
+        expectedBeer.setQuantity(expectedQuantityAfterDecrement);
+
+        when(stockAdjuster.adjust(expectedBeerDTO.getId(), -quantityToDecrement)).thenReturn(expectedBeer);
+
         BeerDTO incrementedBeerDTO = beerService.decrement(expectedBeerDTO.getId(), quantityToDecrement);
 
         assertThat(expectedQuantityAfterDecrement, equalTo(0));
@@ -339,22 +517,56 @@ public class BeerServiceTest {
     }
 
     @Test
-    void whenDecrementIsLowerThanZeroThenThrowException() {
+    void whenDecrementIsLowerThanZeroThenThrowException() throws BeerNotFoundException, BeerStockExceededException {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-
         int quantityToDecrement = 80;
+        when(stockAdjuster.adjust(expectedBeerDTO.getId(), -quantityToDecrement)).thenThrow(BeerStockExceededException.class);
+
         assertThrows(BeerStockExceededException.class, () -> beerService.decrement(expectedBeerDTO.getId(), quantityToDecrement));
     }
 
     @Test
-    void whenDecrementIsCalledWithInvalidIdThenThrowException() {
+    void whenDecrementIsCalledWithInvalidIdThenThrowException() throws BeerNotFoundException, BeerStockExceededException {
         int quantityToDecrement = 10;
 
-        when(beerRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+        when(stockAdjuster.adjust(INVALID_BEER_ID, -quantityToDecrement)).thenThrow(BeerNotFoundException.class);
 
         assertThrows(BeerNotFoundException.class, () -> beerService.decrement(INVALID_BEER_ID, quantityToDecrement));
     }
+
+    @Test
+//  Reservar so altera as unidades reservadas, sem evento porque a quantidade não muda
+    void whenReserveIsCalledThenOnlyReservedUnitsAreAdjusted() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        int quantityToReserve = 4;
+        expectedBeer.setReserved(quantityToReserve);
+
+        when(stockAdjuster.adjust(expectedBeerDTO.getId(), 0, quantityToReserve)).thenReturn(expectedBeer);
+
+        BeerDTO reservedBeerDTO = beerService.reserve(expectedBeerDTO.getId(), quantityToReserve);
+
+        assertThat(reservedBeerDTO.getQuantity(), equalTo(expectedBeerDTO.getQuantity()));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+//  Confirmar tira as unidades da reserva e do estoque juntas e publica o evento
+    void whenConfirmReservationIsCalledThenStockAndReservedAreDecremented() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        int quantityReserved = 4;
+        expectedBeer.setQuantity(expectedBeerDTO.getQuantity() - quantityReserved);
+
+        when(stockAdjuster.adjust(expectedBeerDTO.getId(), -quantityReserved, -quantityReserved)).thenReturn(expectedBeer);
+
+        BeerDTO confirmedBeerDTO = beerService.confirmReservation(expectedBeerDTO.getId(), quantityReserved);
+
+        assertThat(confirmedBeerDTO.getQuantity(), equalTo(expectedBeerDTO.getQuantity() - quantityReserved));
+        ArgumentCaptor<BeerChangedEvent> eventCaptor = ArgumentCaptor.forClass(BeerChangedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getPrevious().getQuantity(), equalTo(expectedBeerDTO.getQuantity()));
+    }
 }
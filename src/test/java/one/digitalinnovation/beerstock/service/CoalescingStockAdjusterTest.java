@@ -0,0 +1,241 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockConflictException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CoalescingStockAdjusterTest {
+
+    private static final long INVALID_BEER_ID = 2L;
+
+    private static final long VERSION = 3L;
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private MeterRegistry meterRegistry;
+
+    private CoalescingStockAdjuster coalescingStockAdjuster;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescingStockAdjuster = new CoalescingStockAdjuster(beerRepository, transactionManager, meterRegistry, 256, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void whenAdjustIsCalledWithoutContentionThenBeerIsUpdatedOnce() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(toModel(expectedBeerDTO)));
+        when(beerRepository.adjustStock(expectedBeerDTO.getId(), 10, 0, VERSION)).thenReturn(1);
+
+        Beer adjustedBeer = coalescingStockAdjuster.adjust(expectedBeerDTO.getId(), 10);
+
+        assertThat(adjustedBeer.getQuantity(), equalTo(expectedBeerDTO.getQuantity() + 10));
+        assertThat(adjustedBeer.getVersion(), equalTo(VERSION + 1));
+        assertThat(meterRegistry.summary("beerstock.stock.coalescing.batch-size").totalAmount(), equalTo(1.0));
+    }
+
+    @Test
+//  Quando a cerveja mudou depois da leitura, o UPDATE por versão não altera nada e cada ajuste é gravado sozinho,
+//  na sua propria transação
+    void whenVersionChangedAfterReadThenAdjustmentIsWrittenAloneInItsOwnTransaction() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer changedBeer = toModel(expectedBeerDTO);
+        changedBeer.setQuantity(expectedBeerDTO.getQuantity() + 10);
+        when(beerRepository.findById(expectedBeerDTO.getId()))
+                .thenReturn(Optional.of(toModel(expectedBeerDTO)))
+                .thenReturn(Optional.of(changedBeer));
+        when(beerRepository.adjustStock(expectedBeerDTO.getId(), 10, 0, VERSION)).thenReturn(0);
+        when(beerRepository.adjustStock(expectedBeerDTO.getId(), 10, 0)).thenReturn(1);
+
+        Beer adjustedBeer = coalescingStockAdjuster.adjust(expectedBeerDTO.getId(), 10);
+
+        assertThat(adjustedBeer.getQuantity(), equalTo(expectedBeerDTO.getQuantity() + 10));
+        assertThat(meterRegistry.counter("beerstock.stock.coalescing.fallbacks").count(), equalTo(1.0));
+//      Uma transação para o lote e outra para o ajuste gravado sozinho
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+//  Dentro da transação de quem chamou (ex.: lote do StockBatchService), o ajuste é um UPDATE condicional nela,
+//  sem fila nem transação nova
+    void whenTransactionIsActiveThenAdjustIsWrittenInItWithoutCoalescing() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerRepository.adjustStock(expectedBeerDTO.getId(), 10, 0)).thenReturn(1);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(toModel(expectedBeerDTO)));
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            coalescingStockAdjuster.adjust(expectedBeerDTO.getId(), 10);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        verifyNoInteractions(transactionManager);
+        verify(beerRepository, never()).adjustStock(anyLong(), anyInt(), anyInt(), anyLong());
+    }
+
+    @Test
+//  Quando o ajuste ultrapassa os limites, lança excessao sem gravar
+    void whenAdjustIsOutOfBoundsThenThrowExceptionWithoutUpdating() {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(toModel(expectedBeerDTO)));
+
+        assertThrows(BeerStockExceededException.class, () -> coalescingStockAdjuster.adjust(expectedBeerDTO.getId(), 45));
+        assertThrows(BeerStockExceededException.class, () -> coalescingStockAdjuster.adjust(expectedBeerDTO.getId(), -11));
+        assertThrows(BeerNotFoundException.class, () -> coalescingStockAdjuster.adjust(INVALID_BEER_ID, 10));
+
+        verify(beerRepository, never()).adjustStock(eq(expectedBeerDTO.getId()), anyInt(), anyInt(), anyLong());
+    }
+
+    @Test
+//  Decrementos que chegam durante um UPDATE são gravados juntos no seguinte, e so os que deixariam o estoque negativo são recusados
+    void whenDecrementsAreConcurrentThenTheyAreCoalescedAndOnlyExcessIsRejected() throws Exception {
+        int threads = 8;
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().quantity(5).build().toBeerDTO();
+        Long id = expectedBeerDTO.getId();
+        AtomicInteger stock = new AtomicInteger(expectedBeerDTO.getQuantity());
+        AtomicInteger updates = new AtomicInteger();
+        CountDownLatch firstUpdateStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstUpdate = new CountDownLatch(1);
+        when(beerRepository.findById(id)).thenAnswer(invocation -> {
+            Beer beer = toModel(expectedBeerDTO);
+            beer.setQuantity(stock.get());
+            return Optional.of(beer);
+        });
+        when(beerRepository.adjustStock(eq(id), anyInt(), eq(0), eq(VERSION))).thenAnswer(invocation -> {
+//          O primeiro UPDATE fica parado até os outros decrementos estarem na fila
+            if (updates.incrementAndGet() == 1) {
+                firstUpdateStarted.countDown();
+                releaseFirstUpdate.await(5, TimeUnit.SECONDS);
+            }
+            stock.addAndGet(invocation.getArgument(1));
+            return 1;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Beer>> futures = new ArrayList<>();
+        futures.add(executor.submit(() -> coalescingStockAdjuster.adjust(id, -1)));
+        firstUpdateStarted.await(5, TimeUnit.SECONDS);
+        for (int i = 1; i < threads; i++) {
+            futures.add(executor.submit(() -> coalescingStockAdjuster.adjust(id, -1)));
+        }
+        awaitQueued(id, threads - 1);
+        releaseFirstUpdate.countDown();
+        int accepted = 0;
+        int rejected = 0;
+        for (Future<Beer> future : futures) {
+            try {
+                assertThat(future.get().getQuantity(), lessThan(expectedBeerDTO.getQuantity()));
+                accepted++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(BeerStockExceededException.class));
+                rejected++;
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertThat(accepted, equalTo(5));
+        assertThat(rejected, equalTo(threads - 5));
+        assertThat(stock.get(), equalTo(0));
+        assertThat(updates.get(), equalTo(2));
+        assertThat(meterRegistry.summary("beerstock.stock.coalescing.batch-size").max(), equalTo((double) threads - 1));
+    }
+
+    @Test
+//  Com o lote da frente preso, quem espera na fila desiste depois de max-wait e sai dela sem ser gravado
+    void whenBatchAheadIsStuckThenQueuedAdjustmentGivesUpAfterMaxWait() throws Exception {
+        coalescingStockAdjuster = new CoalescingStockAdjuster(beerRepository, transactionManager, meterRegistry, 256, Duration.ofMillis(50));
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Long id = expectedBeerDTO.getId();
+        CountDownLatch firstUpdateStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstUpdate = new CountDownLatch(1);
+        when(beerRepository.findById(id)).thenReturn(Optional.of(toModel(expectedBeerDTO)));
+        when(beerRepository.adjustStock(eq(id), anyInt(), eq(0), eq(VERSION))).thenAnswer(invocation -> {
+            firstUpdateStarted.countDown();
+            releaseFirstUpdate.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Beer> first = executor.submit(() -> coalescingStockAdjuster.adjust(id, 1));
+            firstUpdateStarted.await(5, TimeUnit.SECONDS);
+
+            assertThrows(BeerStockConflictException.class, () -> coalescingStockAdjuster.adjust(id, 2));
+            assertThat(coalescingStockAdjuster.queued(id), equalTo(0));
+            releaseFirstUpdate.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS).getQuantity(), equalTo(expectedBeerDTO.getQuantity() + 1));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(beerRepository, times(1)).adjustStock(anyLong(), anyInt(), anyInt(), anyLong());
+    }
+
+//  Espera os ajustes entrarem na fila da cerveja (o lote em gravação não conta)
+    private void awaitQueued(Long id, int expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescingStockAdjuster.queued(id) < expected) {
+            assertThat("ajustes na fila", System.nanoTime(), lessThan(deadline));
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+//  Cerveja como lida do banco, com versão
+    private Beer toModel(BeerDTO beerDTO) {
+        Beer beer = beerMapper.toModel(beerDTO);
+        beer.setVersion(VERSION);
+        return beer;
+    }
+}
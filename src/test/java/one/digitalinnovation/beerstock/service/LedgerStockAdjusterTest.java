@@ -0,0 +1,149 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.event.StockFlushedEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class LedgerStockAdjusterTest {
+
+    private static final long INVALID_BEER_ID = 2L;
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private LedgerStockAdjuster ledgerStockAdjuster;
+
+    @BeforeEach
+    void setUp() {
+        ledgerStockAdjuster = new LedgerStockAdjuster(beerRepository, transactionManager, eventPublisher);
+    }
+
+    @Test
+//  Os ajustes são validados em memória e a cerveja so é lida do banco uma vez
+    void whenAdjustIsCalledTwiceThenBeerIsLoadedOnlyOnce() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+
+        ledgerStockAdjuster.adjust(expectedBeerDTO.getId(), 10);
+        Beer adjustedBeer = ledgerStockAdjuster.adjust(expectedBeerDTO.getId(), -5);
+
+        assertThat(adjustedBeer.getQuantity(), equalTo(expectedBeerDTO.getQuantity() + 5));
+        verify(beerRepository, times(1)).findById(expectedBeerDTO.getId());
+//      Nada é gravado no banco antes do flush
+        verify(beerRepository, never()).adjustStock(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+//  Quando o ajuste ultrapassa o maximo, lança excessao sem alterar o contador
+    void whenAdjustIsGreatherThanMaxThenThrowException() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+
+        assertThrows(BeerStockExceededException.class, () -> ledgerStockAdjuster.adjust(expectedBeerDTO.getId(), 45));
+        assertThrows(BeerStockExceededException.class, () -> ledgerStockAdjuster.adjust(expectedBeerDTO.getId(), -11));
+
+        Beer adjustedBeer = ledgerStockAdjuster.adjust(expectedBeerDTO.getId(), -10);
+        assertThat(adjustedBeer.getQuantity(), equalTo(0));
+    }
+
+    @Test
+    void whenAdjustIsCalledWithInvalidIdThenThrowException() {
+        when(beerRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+
+        assertThrows(BeerNotFoundException.class, () -> ledgerStockAdjuster.adjust(INVALID_BEER_ID, 10));
+    }
+
+    @Test
+//  O flush grava apenas o delta acumulado, em uma unica chamada por cerveja
+    void whenFlushIsCalledThenAccumulatedDeltaIsWritten() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(beerRepository.adjustStock(expectedBeerDTO.getId(), 7, 0)).thenReturn(1);
+
+        ledgerStockAdjuster.adjust(expectedBeerDTO.getId(), 10);
+        ledgerStockAdjuster.adjust(expectedBeerDTO.getId(), -3);
+        ledgerStockAdjuster.flush();
+//      Segundo flush sem ajustes novos não grava nada
+        ledgerStockAdjuster.flush();
+
+        verify(beerRepository, times(1)).adjustStock(expectedBeerDTO.getId(), 7, 0);
+//      So o flush que gravou avisa que o banco mudou
+        verify(eventPublisher, times(1)).publishEvent(new StockFlushedEvent(List.of(expectedBeerDTO.getName())));
+    }
+
+    @Test
+//  Delta recusado pelo banco com a cerveja ainda existente não é descartado: volta para o proximo flush
+    void whenDatabaseRejectsDeltaThenItIsKeptForTheNextFlush() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(beerRepository.adjustStock(expectedBeerDTO.getId(), 10, 0)).thenReturn(0);
+        when(beerRepository.existsById(expectedBeerDTO.getId())).thenReturn(true);
+        when(beerRepository.adjustStock(expectedBeerDTO.getId(), 15, 0)).thenReturn(1);
+
+        ledgerStockAdjuster.adjust(expectedBeerDTO.getId(), 10);
+        ledgerStockAdjuster.flush();
+//      O contador continua o mesmo e acumula o ajuste novo junto com o recusado
+        ledgerStockAdjuster.adjust(expectedBeerDTO.getId(), 5);
+        ledgerStockAdjuster.flush();
+
+        verify(beerRepository, times(1)).findById(expectedBeerDTO.getId());
+        verify(beerRepository, times(1)).adjustStock(expectedBeerDTO.getId(), 15, 0);
+        verify(eventPublisher, times(1)).publishEvent(new StockFlushedEvent(List.of(expectedBeerDTO.getName())));
+    }
+
+    @Test
+//  Cerveja excluida do banco: os deltas dela são descartados e o contador sai da memória
+    void whenBeerNoLongerExistsThenDeltaIsDropped() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(beerRepository.adjustStock(expectedBeerDTO.getId(), 10, 0)).thenReturn(0);
+        when(beerRepository.existsById(expectedBeerDTO.getId())).thenReturn(false);
+
+        ledgerStockAdjuster.adjust(expectedBeerDTO.getId(), 10);
+        ledgerStockAdjuster.flush();
+        ledgerStockAdjuster.flush();
+
+        verify(beerRepository, times(1)).adjustStock(expectedBeerDTO.getId(), 10, 0);
+        verify(eventPublisher, never()).publishEvent(any(StockFlushedEvent.class));
+    }
+}
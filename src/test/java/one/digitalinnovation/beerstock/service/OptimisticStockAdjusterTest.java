@@ -0,0 +1,121 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockConflictException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class OptimisticStockAdjusterTest {
+
+    private static final long INVALID_BEER_ID = 2L;
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private MeterRegistry meterRegistry;
+
+    private OptimisticStockAdjuster optimisticStockAdjuster;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+//      Sem espera entre as tentativas para o teste não depender de tempo
+        optimisticStockAdjuster = new OptimisticStockAdjuster(beerRepository, transactionManager, meterRegistry, MAX_ATTEMPTS, 0, 0);
+    }
+
+    @Test
+    void whenAdjustIsCalledWithoutConflictThenBeerIsSavedOnce() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(beerRepository.saveAndFlush(expectedBeer)).thenReturn(expectedBeer);
+
+        Beer adjustedBeer = optimisticStockAdjuster.adjust(expectedBeerDTO.getId(), 10);
+
+        assertThat(adjustedBeer.getQuantity(), equalTo(expectedBeerDTO.getQuantity() + 10));
+        assertThat(meterRegistry.counter("beerstock.stock.optimistic.retries").count(), equalTo(0.0));
+    }
+
+    @Test
+//  Depois de um conflito, a cerveja é lida de novo e o ajuste é aplicado sobre a nova quantidade
+    void whenAdjustConflictsOnceThenItIsRetriedWithFreshBeer() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer staleBeer = beerMapper.toModel(expectedBeerDTO);
+        Beer freshBeer = beerMapper.toModel(expectedBeerDTO);
+        freshBeer.setQuantity(expectedBeerDTO.getQuantity() + 5);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(staleBeer), Optional.of(freshBeer));
+        when(beerRepository.saveAndFlush(staleBeer)).thenThrow(new ObjectOptimisticLockingFailureException(Beer.class, expectedBeerDTO.getId()));
+        when(beerRepository.saveAndFlush(freshBeer)).thenReturn(freshBeer);
+
+        Beer adjustedBeer = optimisticStockAdjuster.adjust(expectedBeerDTO.getId(), 10);
+
+        assertThat(adjustedBeer.getQuantity(), equalTo(expectedBeerDTO.getQuantity() + 15));
+        assertThat(meterRegistry.counter("beerstock.stock.optimistic.retries").count(), equalTo(1.0));
+        assertThat(meterRegistry.summary("beerstock.stock.optimistic.attempts").totalAmount(), equalTo(2.0));
+    }
+
+    @Test
+    void whenAdjustAlwaysConflictsThenThrowExceptionAfterMaxAttempts() {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenAnswer(invocation -> Optional.of(beerMapper.toModel(expectedBeerDTO)));
+        when(beerRepository.saveAndFlush(any(Beer.class))).thenThrow(new ObjectOptimisticLockingFailureException(Beer.class, expectedBeerDTO.getId()));
+
+        assertThrows(BeerStockConflictException.class, () -> optimisticStockAdjuster.adjust(expectedBeerDTO.getId(), 10));
+
+        verify(beerRepository, times(MAX_ATTEMPTS)).saveAndFlush(any(Beer.class));
+        assertThat(meterRegistry.counter("beerstock.stock.optimistic.retries").count(), equalTo((double) MAX_ATTEMPTS - 1));
+        assertThat(meterRegistry.counter("beerstock.stock.optimistic.conflicts").count(), equalTo(1.0));
+    }
+
+    @Test
+//  Quando o ajuste ultrapassa os limites, lança excessao sem gravar nem repetir
+    void whenAdjustIsOutOfBoundsThenThrowExceptionWithoutSaving() {
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+
+        assertThrows(BeerStockExceededException.class, () -> optimisticStockAdjuster.adjust(expectedBeerDTO.getId(), 45));
+        assertThrows(BeerStockExceededException.class, () -> optimisticStockAdjuster.adjust(expectedBeerDTO.getId(), -11));
+
+        verify(beerRepository, never()).saveAndFlush(any(Beer.class));
+        assertThat(meterRegistry.counter("beerstock.stock.optimistic.retries").count(), equalTo(0.0));
+    }
+
+    @Test
+    void whenAdjustIsCalledWithInvalidIdThenThrowException() {
+        when(beerRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+
+        assertThrows(BeerNotFoundException.class, () -> optimisticStockAdjuster.adjust(INVALID_BEER_ID, 10));
+    }
+}
@@ -0,0 +1,139 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.ReservationDTO;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.ReservationNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationServiceTest {
+
+    private static final long VALID_BEER_ID = 1L;
+
+    @Mock
+    private BeerService beerService;
+
+    private ReservationService reservationService;
+
+    @AfterEach
+    void tearDown() {
+        reservationService.stop();
+    }
+
+    @Test
+//  A confirmação tira as unidades reservadas do estoque e a reserva deixa de existir
+    void whenReservationIsConfirmedThenItCannotBeUsedAgain() throws Exception {
+        startService(Duration.ofMinutes(1));
+        BeerDTO confirmedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerService.confirmReservation(VALID_BEER_ID, 3)).thenReturn(confirmedBeerDTO);
+
+        ReservationDTO reservationDTO = reservationService.reserve(VALID_BEER_ID, 3);
+        BeerDTO beerDTO = reservationService.confirm(reservationDTO.getId());
+
+        assertThat(beerDTO, equalTo(confirmedBeerDTO));
+        verify(beerService).reserve(VALID_BEER_ID, 3);
+        assertThrows(ReservationNotFoundException.class, () -> reservationService.release(reservationDTO.getId()));
+        assertThat(reservationService.activeReservations(), equalTo(0));
+    }
+
+    @Test
+//  Sem estoque disponivel a reserva não é criada
+    void whenReserveExceedsAvailableStockThenThrowException() throws Exception {
+        startService(Duration.ofMinutes(1));
+        when(beerService.reserve(VALID_BEER_ID, 30)).thenThrow(BeerStockExceededException.class);
+
+        assertThrows(BeerStockExceededException.class, () -> reservationService.reserve(VALID_BEER_ID, 30));
+        assertThat(reservationService.activeReservations(), equalTo(0));
+    }
+
+    @Test
+//  A reserva não confirmada é liberada sozinha quando vence
+    void whenReservationExpiresThenReservedUnitsAreReleased() throws Exception {
+        startService(Duration.ofMillis(50));
+
+        ReservationDTO reservationDTO = reservationService.reserve(VALID_BEER_ID, 3);
+
+        verify(beerService, timeout(2000)).release(VALID_BEER_ID, 3);
+        assertThrows(ReservationNotFoundException.class, () -> reservationService.confirm(reservationDTO.getId()));
+        verify(beerService, never()).confirmReservation(anyLong(), anyInt());
+    }
+
+    @Test
+//  Reserva liberada antes de vencer não é liberada de novo pela expiração
+    void whenReservationIsReleasedThenExpirationIgnoresIt() throws Exception {
+        startService(Duration.ofMillis(200));
+
+        ReservationDTO reservationDTO = reservationService.reserve(VALID_BEER_ID, 3);
+        reservationService.release(reservationDTO.getId());
+
+//      Depois do vencimento continua existindo uma unica liberação
+        verify(beerService, after(600).times(1)).release(VALID_BEER_ID, 3);
+    }
+
+    @Test
+//  Quando o ajuste de estoque falha, a reserva continua valendo e pode ser confirmada depois
+    void whenConfirmFailsThenReservationIsKept() throws Exception {
+        startService(Duration.ofMinutes(1));
+        BeerDTO confirmedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerService.confirmReservation(VALID_BEER_ID, 3))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(confirmedBeerDTO);
+
+        ReservationDTO reservationDTO = reservationService.reserve(VALID_BEER_ID, 3);
+
+        assertThrows(IllegalStateException.class, () -> reservationService.confirm(reservationDTO.getId()));
+        assertThat(reservationService.activeReservations(), equalTo(1));
+        assertThat(reservationService.confirm(reservationDTO.getId()), equalTo(confirmedBeerDTO));
+        assertThat(reservationService.activeReservations(), equalTo(0));
+    }
+
+    @Test
+//  Quando a liberação é recusada, a reserva continua valendo
+    void whenReleaseFailsThenReservationIsKept() throws Exception {
+        startService(Duration.ofMinutes(1));
+        when(beerService.release(VALID_BEER_ID, 3)).thenThrow(new BeerStockExceededException(VALID_BEER_ID, 3));
+
+        ReservationDTO reservationDTO = reservationService.reserve(VALID_BEER_ID, 3);
+
+        assertThrows(BeerStockExceededException.class, () -> reservationService.release(reservationDTO.getId()));
+        assertThat(reservationService.activeReservations(), equalTo(1));
+    }
+
+    @Test
+//  Quando a cerveja é excluida, as reservas dela são descartadas
+    void whenBeerIsDeletedThenItsReservationsAreDropped() throws BeerNotFoundException, BeerStockExceededException {
+        startService(Duration.ofMinutes(1));
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        ReservationDTO reservationDTO = reservationService.reserve(beerDTO.getId(), 3);
+        reservationService.onBeerChanged(BeerChangedEvent.deleted(beerDTO));
+
+        assertThrows(ReservationNotFoundException.class, () -> reservationService.release(reservationDTO.getId()));
+    }
+
+    private void startService(Duration timeToLive) {
+        reservationService = new ReservationService(beerService, timeToLive);
+        reservationService.start();
+    }
+}
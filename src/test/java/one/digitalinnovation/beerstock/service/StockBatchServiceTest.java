@@ -0,0 +1,136 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.StockBatchDTO;
+import one.digitalinnovation.beerstock.dto.StockBatchResultDTO;
+import one.digitalinnovation.beerstock.dto.StockOperationDTO;
+import one.digitalinnovation.beerstock.enums.StockBatchMode;
+import one.digitalinnovation.beerstock.enums.StockOperationStatus;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StockBatchServiceTest {
+
+    private static final long VALID_BEER_ID = 1L;
+    private static final long INVALID_BEER_ID = 2L;
+    private static final long OTHER_BEER_ID = 3L;
+
+    @Mock
+    private BeerService beerService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    private StockBatchService stockBatchService;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+        stockBatchService = new StockBatchService(beerService, transactionManager);
+    }
+
+    @Test
+//  Quando todos os itens são aplicados, o lote é confirmado
+    void whenAllOperationsAreValidThenBatchIsCommitted() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerService.increment(VALID_BEER_ID, 5)).thenReturn(beerDTO);
+        when(beerService.decrement(VALID_BEER_ID, 3)).thenReturn(beerDTO);
+
+        StockBatchResultDTO result = stockBatchService.adjustStock(batch(StockBatchMode.ALL_OR_NOTHING,
+                new StockOperationDTO(VALID_BEER_ID, 5),
+                new StockOperationDTO(VALID_BEER_ID, -3)));
+
+        assertThat(result.isCommitted(), is(true));
+        assertThat(result.getResults().get(0).getStatus(), equalTo(StockOperationStatus.APPLIED));
+        assertThat(result.getResults().get(1).getStatus(), equalTo(StockOperationStatus.APPLIED));
+        verify(transactionStatus, never()).setRollbackOnly();
+    }
+
+    @Test
+//  ALL_OR_NOTHING: uma falha desfaz os itens aplicados e ignora os seguintes
+    void whenAllOrNothingOperationFailsThenBatchIsRolledBack() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerService.increment(VALID_BEER_ID, 5)).thenReturn(beerDTO);
+        when(beerService.decrement(INVALID_BEER_ID, 3)).thenThrow(new BeerNotFoundException(INVALID_BEER_ID));
+//      Compensação do item aplicado
+        when(beerService.decrement(VALID_BEER_ID, 5)).thenReturn(beerDTO);
+
+        StockBatchResultDTO result = stockBatchService.adjustStock(batch(StockBatchMode.ALL_OR_NOTHING,
+                new StockOperationDTO(VALID_BEER_ID, 5),
+                new StockOperationDTO(INVALID_BEER_ID, -3),
+                new StockOperationDTO(OTHER_BEER_ID, 1)));
+
+        assertThat(result.isCommitted(), is(false));
+        assertThat(result.getResults().get(0).getStatus(), equalTo(StockOperationStatus.ROLLED_BACK));
+        assertThat(result.getResults().get(1).getStatus(), equalTo(StockOperationStatus.NOT_FOUND));
+        assertThat(result.getResults().get(2).getStatus(), equalTo(StockOperationStatus.SKIPPED));
+        verify(beerService, never()).increment(OTHER_BEER_ID, 1);
+        verify(transactionStatus).setRollbackOnly();
+    }
+
+    @Test
+//  BEST_EFFORT: as falhas são informadas e o resto é confirmado
+    void whenBestEffortOperationFailsThenOtherOperationsAreCommitted() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerService.increment(VALID_BEER_ID, 80)).thenThrow(new BeerStockExceededException(VALID_BEER_ID, 80));
+        when(beerService.decrement(VALID_BEER_ID, 3)).thenReturn(beerDTO);
+
+        StockBatchResultDTO result = stockBatchService.adjustStock(batch(StockBatchMode.BEST_EFFORT,
+                new StockOperationDTO(VALID_BEER_ID, 80),
+                new StockOperationDTO(VALID_BEER_ID, -3)));
+
+        assertThat(result.isCommitted(), is(true));
+        assertThat(result.getResults().get(0).getStatus(), equalTo(StockOperationStatus.REJECTED));
+        assertThat(result.getResults().get(1).getStatus(), equalTo(StockOperationStatus.APPLIED));
+        assertThat(result.getResults().get(1).getQuantity(), equalTo(beerDTO.getQuantity()));
+        verify(transactionStatus, never()).setRollbackOnly();
+    }
+
+    @Test
+//  Os itens são aplicados em ordem de id (sem deadlock entre lotes), e os resultados voltam na ordem da requisição
+    void whenOperationsAreOutOfIdOrderThenTheyAreAppliedSortedById() throws BeerNotFoundException, BeerStockExceededException {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO otherBeerDTO = BeerDTOBuilder.builder().id(OTHER_BEER_ID).quantity(20).build().toBeerDTO();
+        when(beerService.increment(OTHER_BEER_ID, 2)).thenReturn(otherBeerDTO);
+        when(beerService.decrement(VALID_BEER_ID, 1)).thenReturn(beerDTO);
+
+        StockBatchResultDTO result = stockBatchService.adjustStock(batch(StockBatchMode.ALL_OR_NOTHING,
+                new StockOperationDTO(OTHER_BEER_ID, 2),
+                new StockOperationDTO(VALID_BEER_ID, -1)));
+
+        InOrder inOrder = inOrder(beerService);
+        inOrder.verify(beerService).decrement(VALID_BEER_ID, 1);
+        inOrder.verify(beerService).increment(OTHER_BEER_ID, 2);
+        assertThat(result.getResults().get(0).getId(), equalTo(OTHER_BEER_ID));
+        assertThat(result.getResults().get(0).getQuantity(), equalTo(otherBeerDTO.getQuantity()));
+        assertThat(result.getResults().get(1).getId(), equalTo(VALID_BEER_ID));
+    }
+
+    private StockBatchDTO batch(StockBatchMode mode, StockOperationDTO... operations) {
+        return new StockBatchDTO(mode, Arrays.asList(operations));
+    }
+}
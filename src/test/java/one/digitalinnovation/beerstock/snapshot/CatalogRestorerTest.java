@@ -0,0 +1,83 @@
+package one.digitalinnovation.beerstock.snapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.JournalEntryType;
+import one.digitalinnovation.beerstock.journal.JournalEntry;
+import one.digitalinnovation.beerstock.journal.ReplayedCatalog;
+import one.digitalinnovation.beerstock.journal.StockJournal;
+import one.digitalinnovation.beerstock.repository.BeerBulkLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogRestorerTest {
+
+    @Mock
+    private CatalogSnapshotService snapshotService;
+
+    @Mock
+    private StockJournal stockJournal;
+
+    @Mock
+    private BeerBulkLoader beerBulkLoader;
+
+    @Mock
+    private ObjectProvider<CatalogSnapshotService> snapshotServiceProvider;
+
+    @Mock
+    private ObjectProvider<StockJournal> stockJournalProvider;
+
+    @Test
+    @SuppressWarnings("unchecked")
+//  O journal é aplicado so a partir da sequencia do snapshot, e o resultado é carregado de uma vez
+    void whenRestoreIsCalledThenJournalAfterSnapshotIsApplied() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO incrementedBeerDTO = BeerDTOBuilder.builder().quantity(15).build().toBeerDTO();
+        when(snapshotServiceProvider.getIfAvailable()).thenReturn(snapshotService);
+        when(stockJournalProvider.getIfAvailable()).thenReturn(stockJournal);
+        when(snapshotService.readLatest()).thenReturn(new ReplayedCatalog(7, Collections.singletonList(beerDTO), Collections.emptyList()));
+        doAnswer(invocation -> {
+            Consumer<JournalEntry> consumer = invocation.getArgument(1);
+            consumer.accept(new JournalEntry(8, 0, JournalEntryType.UPDATED, 5, incrementedBeerDTO));
+            return null;
+        }).when(stockJournal).read(eq(7L), any());
+
+        CatalogRestorer catalogRestorer = new CatalogRestorer(snapshotServiceProvider, stockJournalProvider, true, beerBulkLoader, new SimpleMeterRegistry());
+        catalogRestorer.start();
+
+        ArgumentCaptor<Collection<Beer>> beersCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(beerBulkLoader).replaceAll(beersCaptor.capture(), eq(1L));
+        assertThat(beersCaptor.getValue(), hasSize(1));
+        assertThat(beersCaptor.getValue().iterator().next().getQuantity(), equalTo(15));
+    }
+
+    @Test
+//  Sem snapshot nem replay do journal, a tabela não é tocada
+    void whenNothingIsEnabledThenTableIsNotLoaded() {
+        CatalogRestorer catalogRestorer = new CatalogRestorer(snapshotServiceProvider, stockJournalProvider, false, beerBulkLoader, new SimpleMeterRegistry());
+
+        assertThat(catalogRestorer.restore(), equalTo(0));
+        verifyNoInteractions(beerBulkLoader);
+    }
+}
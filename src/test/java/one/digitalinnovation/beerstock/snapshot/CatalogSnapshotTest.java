@@ -0,0 +1,52 @@
+package one.digitalinnovation.beerstock.snapshot;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.journal.ReplayedCatalog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CatalogSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+//  O snapshot lido de volta tem as mesmas cervejas, exclusões e sequencia do journal
+    void whenSnapshotIsWrittenThenItIsReadBack() throws IOException {
+        BeerDTO firstBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO secondBeerDTO = BeerDTOBuilder.builder().id(3L).name("Heineken").quantity(0).build().toBeerDTO();
+        Path path = directory.resolve("catalog.snapshot");
+
+        CatalogSnapshot.write(path, new ReplayedCatalog(42, Arrays.asList(firstBeerDTO, secondBeerDTO), Collections.singletonList(2L)));
+        ReplayedCatalog catalog = CatalogSnapshot.read(path);
+
+        assertThat(catalog.getLastSequence(), equalTo(42L));
+        assertThat(catalog.getBeers(), contains(firstBeerDTO, secondBeerDTO));
+        assertThat(catalog.getDeletedIds(), contains(2L));
+    }
+
+    @Test
+//  Um byte alterado invalida o snapshot
+    void whenSnapshotIsCorruptedThenReadFails() throws IOException {
+        Path path = directory.resolve("catalog.snapshot");
+        CatalogSnapshot.write(path, new ReplayedCatalog(1, Collections.singletonList(BeerDTOBuilder.builder().build().toBeerDTO()), Collections.emptyList()));
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 0x7F;
+        Files.write(path, bytes);
+
+        assertThrows(IOException.class, () -> CatalogSnapshot.read(path));
+    }
+}
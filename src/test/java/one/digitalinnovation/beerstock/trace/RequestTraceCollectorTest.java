@@ -0,0 +1,80 @@
+package one.digitalinnovation.beerstock.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestTraceCollectorTest {
+
+    @Test
+//  Quando uma etapa chama outra, cada uma fica apenas com o proprio tempo e a soma bate com o total
+    void whenStagesAreNestedThenEachStageKeepsOnlyItsOwnTime() throws InterruptedException {
+        RequestTrace trace = new RequestTrace();
+        trace.open();
+        Thread.sleep(5);
+        trace.open();
+        Thread.sleep(20);
+        trace.close(Stage.REPOSITORY);
+        trace.close(Stage.SERVICE);
+        trace.finish();
+
+        long service = trace.getStageNanos(Stage.SERVICE);
+        long repository = trace.getStageNanos(Stage.REPOSITORY);
+        assertThat(repository, greaterThanOrEqualTo(20_000_000L));
+        assertThat(service, greaterThanOrEqualTo(5_000_000L));
+        assertThat(service, lessThanOrEqualTo(repository));
+
+        long sum = 0;
+        for (Stage stage : Stage.values()) {
+            sum += trace.getStageNanos(stage);
+        }
+        assertThat(sum, equalTo(trace.getTotalNanos()));
+    }
+
+    @Test
+//  Quando a amostragem esta desligada, nenhuma requisição é medida
+    void whenSampleRateIsZeroThenNothingIsSampled() {
+        RequestTraceCollector collector = new RequestTraceCollector(0, 10, 3);
+
+        assertFalse(collector.shouldSample());
+        collector.setSampleRate(1);
+        assertTrue(collector.shouldSample());
+    }
+
+    @Test
+//  Quando requisições são registradas, agrega por endpoint e lista as mais lentas primeiro
+    void whenTracesAreRecordedThenBreakdownAndSlowestAreAvailable() throws InterruptedException {
+        RequestTraceCollector collector = new RequestTraceCollector(1, 10, 2);
+        collector.record("PATCH /api/v1/beers/{id}/increment", finishedTrace(1));
+        collector.record("PATCH /api/v1/beers/{id}/increment", finishedTrace(15));
+        collector.record("GET /api/v1/beers", finishedTrace(5));
+
+        Map<String, Object> breakdown = collector.breakdown();
+        List<RequestTraceSnapshot> slowest = collector.slowest();
+
+        assertThat(breakdown, hasKey("PATCH /api/v1/beers/{id}/increment"));
+        assertThat(breakdown, hasKey("GET /api/v1/beers"));
+        assertThat(slowest.size(), equalTo(2));
+        assertThat(slowest.get(0).getTotalMillis(), greaterThan(slowest.get(1).getTotalMillis()));
+        assertThat(slowest.get(0).getEndpoint(), equalTo("PATCH /api/v1/beers/{id}/increment"));
+    }
+
+    private RequestTrace finishedTrace(long serviceMillis) throws InterruptedException {
+        RequestTrace trace = new RequestTrace();
+        trace.open();
+        Thread.sleep(serviceMillis);
+        trace.close(Stage.SERVICE);
+        trace.finish();
+        return trace;
+    }
+}
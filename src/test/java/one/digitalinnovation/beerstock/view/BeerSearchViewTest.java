@@ -0,0 +1,66 @@
+package one.digitalinnovation.beerstock.view;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchResultDTO;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class BeerSearchViewTest {
+
+    private BeerSearchView view;
+
+    @BeforeEach
+    void setUp() {
+        view = new BeerSearchView();
+        view.rebuild(Arrays.asList(
+                beer(1L, "Brahma", "Ambev"),
+                beer(2L, "Brahma Duplo Malte", "Ambev"),
+                beer(3L, "Bohemia", "Ambev"),
+                beer(4L, "Heineken", "Heineken"),
+                beer(5L, "Colorado Appia", "Colorado")));
+    }
+
+    @Test
+//  Nome exato primeiro, depois prefixo do nome, palavra do nome e por ultimo a marca
+    void whenPrefixIsSearchedThenResultsAreRankedByWhereItMatches() {
+        assertThat(ids(view.search("brahma", 10)), contains(1L, 2L));
+        assertThat(ids(view.search("App", 10)), contains(5L));
+        assertThat(ids(view.search("am", 10)), contains(1L, 3L, 2L));
+        assertThat(ids(view.search("colo", 1)), contains(5L));
+    }
+
+    @Test
+//  Erros de digitação e acentos ainda encontram a cerveja pelos trigramas
+    void whenTextHasTyposThenSimilarBeersAreFound() {
+        assertThat(ids(view.search("Heinekne", 10)), contains(4L));
+        assertThat(ids(view.search("BOÊMIA", 10)), contains(3L));
+        assertThat(view.search("xyz", 10), empty());
+    }
+
+    @Test
+//  Cerveja excluida sai do indice e cerveja criada entra
+    void whenBeersAreCreatedAndDeletedThenIndexFollowsTheEvents() {
+        view.apply(BeerChangedEvent.deleted(beer(4L, "Heineken", "Heineken")));
+        view.apply(BeerChangedEvent.created(beer(6L, "Hoegaarden", "Ambev")));
+
+        assertThat(ids(view.search("h", 10)), contains(6L));
+    }
+
+    private static BeerDTO beer(Long id, String name, String brand) {
+        return BeerDTOBuilder.builder().id(id).name(name).brand(brand).build().toBeerDTO();
+    }
+
+    private static List<Long> ids(List<BeerSearchResultDTO> results) {
+        return results.stream().map(BeerSearchResultDTO::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,99 @@
+package one.digitalinnovation.beerstock.view;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.StockAggregateDTO;
+import one.digitalinnovation.beerstock.dto.StockAggregatesDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+
+public class StockAggregatesViewTest {
+
+    @Test
+//  A reconstrução soma o catalogo inteiro por tipo e por marca
+    void whenCatalogIsRebuiltThenTotalsAreGroupedByTypeAndBrand() {
+        StockAggregatesView view = new StockAggregatesView();
+        view.rebuild(Arrays.asList(
+                BeerDTOBuilder.builder().id(1L).name("Brahma").brand("Ambev").max(50).quantity(10).type(BeerType.LAGER).build().toBeerDTO(),
+                BeerDTOBuilder.builder().id(2L).name("Skol").brand("Ambev").max(50).quantity(30).type(BeerType.LAGER).build().toBeerDTO(),
+                BeerDTOBuilder.builder().id(3L).name("Colorado").brand("Colorado").max(20).quantity(5).type(BeerType.IPA).build().toBeerDTO()));
+
+        StockAggregatesDTO aggregates = view.getAggregates();
+
+        assertThat(aggregates.getTotal(), equalTo(new StockAggregateDTO(3, 45L, 120L, 45.0 / 120)));
+        assertThat(aggregates.getByType().get(BeerType.LAGER), equalTo(new StockAggregateDTO(2, 40L, 100L, 0.4)));
+        assertThat(aggregates.getByType().get(BeerType.IPA).getTotalUnits(), equalTo(5L));
+        assertThat(aggregates.getByBrand().get("Ambev").getSkuCount(), equalTo(2));
+        assertThat(aggregates.getByBrand().get("Colorado").getFillRatio(), closeTo(0.25, 1e-9));
+    }
+
+    @Test
+//  Ajuste de estoque muda so as unidades e a exclusão tira o grupo que ficou vazio
+    void whenStockChangesAndBeerIsDeletedThenTotalsFollowTheEvents() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO incrementedBeerDTO = BeerDTOBuilder.builder().quantity(25).build().toBeerDTO();
+
+        StockAggregatesView view = new StockAggregatesView();
+        view.apply(BeerChangedEvent.created(beerDTO));
+        view.apply(BeerChangedEvent.updated(beerDTO, incrementedBeerDTO));
+
+        assertThat(view.getAggregates().getByType().get(BeerType.LAGER), equalTo(new StockAggregateDTO(1, 25L, 50L, 0.5)));
+
+        view.apply(BeerChangedEvent.deleted(incrementedBeerDTO));
+        StockAggregatesDTO aggregates = view.getAggregates();
+
+        assertThat(aggregates.getTotal(), equalTo(new StockAggregateDTO(0, 0L, 0L, 0.0)));
+        assertThat(aggregates.getByType(), not(hasKey(BeerType.LAGER)));
+        assertThat(aggregates.getByBrand(), aMapWithSize(0));
+    }
+
+    @Test
+//  Eventos de threads diferentes, em qualquer ordem, terminam nos mesmos totais
+    void whenAdjustmentsAreConcurrentThenTotalsMatchTheFinalStock() throws Exception {
+        int beers = 8;
+        int adjustmentsPerBeer = 1000;
+        StockAggregatesView view = new StockAggregatesView();
+        for (long id = 1; id <= beers; id++) {
+            view.apply(BeerChangedEvent.created(BeerDTOBuilder.builder().id(id).name("Beer " + id).quantity(0).max(5000).build().toBeerDTO()));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(beers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (long id = 1; id <= beers; id++) {
+            long beerId = id;
+            futures.add(executor.submit(() -> {
+                for (int quantity = 0; quantity < adjustmentsPerBeer; quantity++) {
+                    BeerDTO previous = BeerDTOBuilder.builder().id(beerId).name("Beer " + beerId).quantity(quantity).max(5000).build().toBeerDTO();
+                    BeerDTO current = BeerDTOBuilder.builder().id(beerId).name("Beer " + beerId).quantity(quantity + 1).max(5000).build().toBeerDTO();
+                    view.apply(BeerChangedEvent.updated(previous, current));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        StockAggregateDTO total = view.getAggregates().getTotal();
+        assertThat(total.getSkuCount(), equalTo(beers));
+        assertThat(total.getTotalUnits(), equalTo((long) beers * adjustmentsPerBeer));
+        assertThat(view.getAggregates().getByBrand().get("Ambev").getTotalUnits(), equalTo((long) beers * adjustmentsPerBeer));
+    }
+}
@@ -0,0 +1,76 @@
+package one.digitalinnovation.beerstock.view;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+public class StockLevelViewTest {
+
+    private StockLevelView view;
+
+    @BeforeEach
+    void setUp() {
+        view = new StockLevelView();
+        view.rebuild(Arrays.asList(
+                beer(1L, 50, 10, BeerType.LAGER),
+                beer(2L, 50, 2, BeerType.LAGER),
+                beer(3L, 20, 18, BeerType.IPA),
+                beer(4L, 100, 5, BeerType.IPA)));
+    }
+
+    @Test
+//  Menor estoque primeiro, com limite, filtro de tipo e limiar de quantidade
+    void whenLowStockIsQueriedThenBeersAreOrderedByQuantity() {
+        assertThat(ids(view.findLowStock(null, null, 3)), contains(2L, 4L, 1L));
+        assertThat(ids(view.findLowStock(BeerType.IPA, null, 10)), contains(4L, 3L));
+        assertThat(ids(view.findLowStock(null, 5, 10)), contains(2L, 4L));
+    }
+
+    @Test
+//  Menor folga ate o maximo primeiro
+    void whenNearCapacityIsQueriedThenBeersAreOrderedByHeadroom() {
+        assertThat(ids(view.findNearCapacity(null, null, 10)), contains(3L, 1L, 2L, 4L));
+        assertThat(ids(view.findNearCapacity(BeerType.LAGER, 40, 10)), contains(1L));
+        assertThat(view.findNearCapacity(BeerType.STOUT, null, 10), empty());
+    }
+
+    @Test
+//  Ajustes fora de ordem somam os deltas, e a exclusão tira a cerveja do indice
+    void whenStockChangesThenIndexIsReordered() {
+        BeerDTO beerDTO = beer(2L, 50, 2, BeerType.LAGER);
+        BeerDTO plusForty = beer(2L, 50, 42, BeerType.LAGER);
+        BeerDTO plusFortyMinusOne = beer(2L, 50, 41, BeerType.LAGER);
+
+        view.apply(BeerChangedEvent.updated(plusForty, plusFortyMinusOne));
+        view.apply(BeerChangedEvent.updated(beerDTO, plusForty));
+
+        List<BeerDTO> lowStock = view.findLowStock(BeerType.LAGER, null, 10);
+        assertThat(ids(lowStock), contains(1L, 2L));
+        assertThat(lowStock.get(1).getQuantity(), equalTo(41));
+
+        view.apply(BeerChangedEvent.deleted(plusFortyMinusOne));
+        view.apply(BeerChangedEvent.updated(beerDTO, plusForty));
+
+        assertThat(ids(view.findLowStock(BeerType.LAGER, null, 10)), contains(1L));
+    }
+
+    private static BeerDTO beer(Long id, int max, int quantity, BeerType type) {
+        return BeerDTOBuilder.builder().id(id).name("Beer " + id).max(max).quantity(quantity).type(type).build().toBeerDTO();
+    }
+
+    private static List<Long> ids(List<BeerDTO> beers) {
+        return beers.stream().map(BeerDTO::getId).collect(Collectors.toList());
+    }
+}